@@ -3,27 +3,59 @@ package library;
 import library.models.*;
 import library.exceptions.*;
 import library.interfaces.*;
+import library.importer.*;
+import library.recommendations.*;
+import library.analytics.*;
+import library.mvcc.*;
+import library.fines.*;
+import library.time.*;
+import library.events.*;
+import library.replication.ApplyResult;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.*;
+import java.time.LocalDate;
 import java.util.logging.*;
 
 /**
  * Główna klasa zarządzająca systemem bibliotecznym.
+ * <p>
+ * Katalog, lista czytelników i stan wypożyczeń są wersjonowane ({@link Versions}), więc długie
+ * odczyty (raporty, listy, zapis stanu) działają na spójnej migawce i nie blokują wypożyczeń.
  */
 public class Library implements Serializable {
-    private Map<String, Item> items;
-    private List<User> users;
+    private transient Map<UUID, Item> items;
+    // Czytelnik, który ma wypożyczony przedmiot; zmieniany tylko wewnątrz Versions.commit.
+    private transient Map<UUID, User> holders;
+    private final Versioned<PersistentVector<Item>> catalog;
+    private final Versioned<PersistentVector<User>> users;
     private List<Librarian> librarians;
     private static final String SAVE_FILE = "library_data.ser";
     private Map<String, Set<Item>> categories;
     private static final String ITEMS_DATA_FILE = "items_data.dat";
-    private static final String USERS_DATA_FILE = "users_data.ser";
+    private static final String USERS_DATA_FILE = "users_data.bin";
+    private static final String LEGACY_USERS_DATA_FILE = "users_data.ser";
+    private transient volatile CoBorrowIndex recommendations;
+    // Wypożyczenia zatwierdzone podczas budowy indeksu poleceń; dostęp tylko wewnątrz Versions.commit.
+    private transient List<PendingLoan> pendingLoans;
+    private transient DemandAnalytics demandAnalytics;
+    private transient LoanListener loanEvents;
+    private FinePolicy finePolicy;
+    private FineLedger fineLedger;
+    private ChangeLog changes;
 
     public Library() {
-        items = new HashMap<>();
-        users = new ArrayList<>();
+        items = new ConcurrentHashMap<>();
+        holders = new ConcurrentHashMap<>();
+        catalog = new Versioned<>(PersistentVector.empty());
+        users = new Versioned<>(PersistentVector.empty());
         librarians = new ArrayList<>();
-        categories = new HashMap<>();
+        categories = new ConcurrentHashMap<>();
+        finePolicy = FinePolicy.DEFAULT;
+        fineLedger = new FineLedger();
+        changes = new ChangeLog();
+        demandAnalytics = new DemandAnalytics();
+        loanEvents = new LoanEvents();
     }
 
     /**
@@ -31,7 +63,62 @@ public class Library implements Serializable {
      * @param item przedmiot do dodania
      */
     public void addItem(Item item) {
-        items.put(item.getId(), item);
+        Versions.commit(() -> {
+            ChangeEvent added = new ChangeEvent.ItemAdded(ItemRecord.of(item));
+            catalog.set(catalog.get().append(item));
+            items.put(item.getKey(), item);
+            changes.publish(added);
+        });
+    }
+
+    /**
+     * Dodaje wiele przedmiotów naraz, przypisując książki do kategorii według gatunku.
+     * @param newItems przedmioty do dodania
+     */
+    public void addItems(Collection<? extends Item> newItems) {
+        Versions.commit(() -> {
+            List<ChangeEvent> added = new ArrayList<>(newItems.size());
+            for (Item item : newItems) {
+                added.add(new ChangeEvent.ItemAdded(ItemRecord.of(item)));
+            }
+            catalog.set(catalog.get().appendAll(newItems));
+            for (Item item : newItems) {
+                items.put(item.getKey(), item);
+                if (item instanceof Book book) {
+                    addToCategory(book.getGenre(), book);
+                }
+            }
+            added.forEach(changes::publish);
+        });
+    }
+
+    /**
+     * Pobiera wszystkie przedmioty w katalogu, w kolejności dodania.
+     * @return niemodyfikowalna lista przedmiotów (w migawce: stan z chwili jej przypięcia)
+     */
+    public List<Item> getAllItems() {
+        return catalog.get();
+    }
+
+    /**
+     * Przypina spójną wersję katalogu, czytelników i wypożyczeń. Odczyty wykonywane przez
+     * {@link Snapshot#run} lub {@link Snapshot#call} widzą stan z chwili przypięcia,
+     * a równoległe wypożyczenia i zwroty nie są blokowane. Migawkę należy zamknąć.
+     * @return przypięta migawka
+     */
+    public Snapshot snapshot() {
+        return Versions.pin();
+    }
+
+    /**
+     * Pobiera przedmioty danego typu z migawki katalogu.
+     * @param type klasa przedmiotu, np. {@code Book.class}
+     * @return przedmioty danego typu w kolejności dodania
+     */
+    public List<Item> listItems(Class<? extends Item> type) {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.call(() -> catalog.get().stream().filter(type::isInstance).toList());
+        }
     }
 
     /**
@@ -39,7 +126,284 @@ public class Library implements Serializable {
      * @param user użytkownik do zarejestrowania
      */
     public void registerUser(User user) {
-        users.add(user);
+        Versions.commit(() -> {
+            users.set(users.get().append(user));
+            for (Item item : user.borrowedItemsView()) {
+                holders.put(item.getKey(), user);
+            }
+            changes.publish(new ChangeEvent.UserRegistered(user.getId(), user.getFirstName(), user.getLastName()));
+        });
+        user.setLoanListener(loanEvents);
+    }
+
+    /**
+     * Zwraca pozycje najczęściej wypożyczane przez czytelników, którzy wypożyczyli podaną.
+     * Indeks jest budowany przy pierwszym wywołaniu i dalej aktualizowany przy każdym wypożyczeniu.
+     * @param item przedmiot, dla którego szukamy poleceń
+     * @return polecane przedmioty, od najczęściej wypożyczanych razem
+     */
+    public List<Item> getAlsoBorrowed(Item item) {
+        CoBorrowIndex index = recommendations;
+        if (index == null) {
+            index = buildRecommendations();
+        }
+        return index.alsoBorrowed(item.getId()).stream()
+            .map(recommendation -> findItem(recommendation.itemId()))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Buduje indeks poleceń z migawki czytelników, nie wstrzymując wypożyczeń. Wypożyczenia
+     * zatwierdzone po przypięciu migawki są buforowane i dopisywane do indeksu w tej samej
+     * transakcji, w której indeks jest publikowany, więc żadne nie zostaje pominięte.
+     * @return opublikowany indeks
+     */
+    private synchronized CoBorrowIndex buildRecommendations() {
+        CoBorrowIndex current = recommendations;
+        if (current != null) {
+            return current;
+        }
+        Snapshot snapshot = Versions.commitAndGet(() -> {
+            pendingLoans = new ArrayList<>();
+            return snapshot();
+        });
+        CoBorrowIndex index;
+        try (snapshot) {
+            index = snapshot.call(() -> CoBorrowIndex.build(users.get(), CoBorrowIndex.DEFAULT_TOP_N));
+        } catch (RuntimeException e) {
+            Versions.commit(() -> pendingLoans = null);
+            throw e;
+        }
+        return Versions.commitAndGet(() -> {
+            for (PendingLoan loan : pendingLoans) {
+                index.onLoan(loan.history(), loan.item());
+            }
+            pendingLoans = null;
+            recommendations = index;
+            return index;
+        });
+    }
+
+    /**
+     * Pobiera analizę popytu zasilaną wypożyczeniami czytelników.
+     * @return analiza popytu tej biblioteki
+     */
+    public DemandAnalytics getDemandAnalytics() {
+        return demandAnalytics;
+    }
+
+    /**
+     * Generuje raport najczęściej wypożyczanych pozycji w ostatniej dobie, tygodniu i miesiącu.
+     * @param k liczba pozycji w każdym rankingu
+     * @return tekst raportu
+     */
+    public String generateDemandReport(int k) {
+        DemandAnalytics analytics = getDemandAnalytics();
+        StringBuilder report = new StringBuilder("=== Raport Popytu ===\n");
+        for (TimeWindow window : TimeWindow.values()) {
+            report.append(String.format("\n%s\n", window.getLabel()));
+            for (Dimension dimension : Dimension.values()) {
+                List<DemandEntry> top = analytics.topK(dimension, window, k);
+                if (!top.isEmpty()) {
+                    report.append(String.format("  %s:\n", dimension.getLabel()));
+                    for (DemandEntry entry : top) {
+                        report.append(String.format("  - %s (%d)\n", entry.key(), entry.estimatedLoans()));
+                    }
+                }
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Zwraca przedmiot w imieniu czytelnika, który go wypożyczył; zwrot po terminie nalicza mu karę.
+     * Czytelnik jest wyszukiwany w indeksie wypożyczeń w tej samej transakcji co zwrot, bez
+     * przeglądania listy czytelników. Jeśli żaden czytelnik nie ma
+     * przedmiotu (wypożyczenie bez wskazania czytelnika), zwrot jest przyjmowany bez kary.
+     * @param item zwracany przedmiot
+     * @return potwierdzenie zwrotu z liczbą dni opóźnienia i zapisaną karą
+     * @throws IllegalStateException gdy przedmiot nie jest wypożyczony lub nie podlega wypożyczeniu
+     */
+    public ReturnReceipt returnItem(Item item) {
+        if (!(item instanceof Loanable loanable)) {
+            throw new IllegalStateException("Przedmiot nie podlega wypożyczeniu");
+        }
+        return Versions.commitAndGet(() -> {
+            User holder = holders.get(item.getKey());
+            if (holder != null && holder.holds(item)) {
+                long daysOverdue = holder.returnItem(item);
+                return new ReturnReceipt(holder.getId(), daysOverdue, finePolicy.fineFor(daysOverdue));
+            }
+            long daysOverdue = loanable.returnItem();
+            changes.publish(new ChangeEvent.ItemReturned(null, item.getId(), daysOverdue));
+            return new ReturnReceipt(null, daysOverdue, 0);
+        });
+    }
+
+    /**
+     * Wypożycza przedmiot bez wskazania czytelnika.
+     * @param item wypożyczany przedmiot
+     * @throws IllegalStateException gdy przedmiot jest już wypożyczony lub nie podlega wypożyczeniu
+     */
+    public void borrowItem(Item item) {
+        if (!(item instanceof Loanable loanable)) {
+            throw new IllegalStateException("Przedmiot nie podlega wypożyczeniu");
+        }
+        Versions.commit(() -> {
+            loanable.borrow();
+            changes.publish(new ChangeEvent.ItemBorrowed(null, item.getId(), loanable.getDueDate()));
+        });
+    }
+
+    /**
+     * Wyszukuje przedmiot po identyfikatorze.
+     * @param id identyfikator przedmiotu
+     * @return przedmiot lub null, gdy nie ma go w katalogu
+     */
+    public Item findItem(String id) {
+        return items.get(Item.keyOf(id));
+    }
+
+    /**
+     * Stosuje stany przedmiotów odebrane z innej biblioteki w jednej transakcji: brakujące przedmioty
+     * są dodawane, a istniejącym ustawiany jest odebrany stan wypożyczenia. Nowe migawki widzą
+     * wszystkie zmiany naraz albo żadnej. Listy wypożyczeń czytelników nie są zmieniane, dlatego
+     * przedmiot wypożyczony przez lokalnego czytelnika zachowuje swój stan, a rekord o innym stanie
+     * wypożyczenia jest pomijany i zgłaszany jako konflikt.
+     * @param records stany przedmiotów
+     * @return liczba dodanych lub zmienionych przedmiotów oraz identyfikatory konfliktów
+     */
+    public ApplyResult applyReplicatedItems(Collection<ItemRecord> records) {
+        ApplyResult result = Versions.commitAndGet(() -> {
+            Map<UUID, Item> added = new LinkedHashMap<>();
+            List<String> conflicts = new ArrayList<>();
+            int changed = 0;
+            for (ItemRecord record : records) {
+                Item existing = findItem(record.id());
+                if (existing == null) {
+                    added.putIfAbsent(Item.keyOf(record.id()), record.toItem());
+                    continue;
+                }
+                if (holders.containsKey(existing.getKey()) && !record.hasLoanStateOf(existing)) {
+                    conflicts.add(record.id());
+                    continue;
+                }
+                boolean wasAvailable = ((Loanable) existing).isAvailable();
+                if (record.applyLoanState(existing)) {
+                    changed++;
+                    LocalDate dueDate = ((Loanable) existing).getDueDate();
+                    if (!record.isBorrowed()) {
+                        changes.publish(new ChangeEvent.ItemReturned(null, record.id(), 0));
+                    } else if (wasAvailable) {
+                        changes.publish(new ChangeEvent.ItemBorrowed(null, record.id(), dueDate));
+                    } else {
+                        changes.publish(new ChangeEvent.LoanExtended(null, record.id(), dueDate));
+                    }
+                }
+            }
+            if (!added.isEmpty()) {
+                addItems(added.values());
+            }
+            return new ApplyResult(added.size() + changed, conflicts);
+        });
+        if (!result.conflicts().isEmpty()) {
+            Logger.getLogger(Library.class.getName()).log(Level.WARNING,
+                "Pominięto {0} przedmiotów wypożyczonych przez lokalnych czytelników: {1}",
+                new Object[] {result.conflicts().size(), result.conflicts()});
+        }
+        return result;
+    }
+
+    /**
+     * Pobiera dziennik zmian katalogu, czytelników i wypożyczeń. Wczytanie katalogu z pliku
+     * publikuje tylko {@link ChangeEvent.CatalogReloaded}, a wczytanie czytelników nie publikuje
+     * zmian; odbiorcy powinni wtedy odbudować stan z pełnych danych.
+     * @return dziennik zmian tej biblioteki
+     */
+    public ChangeLog getChangeLog() {
+        return changes;
+    }
+
+    public FinePolicy getFinePolicy() {
+        return finePolicy;
+    }
+
+    public FineLedger getFineLedger() {
+        return fineLedger;
+    }
+
+    /**
+     * Nocny przebieg naliczania kar za przetrzymane, jeszcze niezwrócone przedmioty.
+     * Działa na migawce czytelników i może być uruchamiany wielokrotnie tego samego dnia.
+     * @return podsumowanie przebiegu
+     */
+    public FineAccrualEngine.AccrualSummary runFineAccrual() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.call(() -> new FineAccrualEngine(finePolicy)
+                .run(users.get(), fineLedger, LibraryClock.today()));
+        }
+    }
+
+    /**
+     * Zastępuje listę czytelników wczytaną z pliku i podłącza ich wypożyczenia.
+     */
+    private synchronized void replaceUsers(List<User> loadedUsers) {
+        Versions.commit(() -> {
+            users.set(PersistentVector.of(loadedUsers));
+            attachLoanListeners();
+        });
+    }
+
+    /**
+     * Podłącza czytelników do zdarzeń wypożyczeń i odbudowuje indeks wypożyczeń.
+     * Wywoływane wewnątrz transakcji {@code Versions.commit}.
+     */
+    private synchronized void attachLoanListeners() {
+        recommendations = null;
+        loanEvents = new LoanEvents();
+        Map<UUID, User> held = new ConcurrentHashMap<>();
+        for (User user : users.get()) {
+            user.setLoanListener(loanEvents);
+            for (Item item : user.borrowedItemsView()) {
+                held.put(item.getKey(), user);
+            }
+        }
+        holders = held;
+    }
+
+    /**
+     * Przekazuje wypożyczenia do poleceń i analizy popytu, zwroty po terminie do księgi kar,
+     * a wszystkie zmiany stanu wypożyczeń do dziennika zmian.
+     */
+    private class LoanEvents implements LoanListener {
+        @Override
+        public void onLoan(User user, Item item) {
+            CoBorrowIndex index = recommendations;
+            if (index != null) {
+                index.onLoan(user, item);
+            } else if (pendingLoans != null) {
+                pendingLoans.add(new PendingLoan(user.getBorrowingHistory(), item));
+            }
+            holders.put(item.getKey(), user);
+            demandAnalytics.onLoan(user, item);
+            changes.publish(new ChangeEvent.ItemBorrowed(user.getId(), item.getId(), ((Loanable) item).getDueDate()));
+        }
+
+        @Override
+        public void onReturn(User user, Item item, long daysOverdue) {
+            holders.remove(item.getKey(), user);
+            fineLedger.charge(user.getId(), item.getId(), finePolicy.fineFor(daysOverdue), LibraryClock.today());
+            changes.publish(new ChangeEvent.ItemReturned(user.getId(), item.getId(), daysOverdue));
+        }
+
+        @Override
+        public void onExtend(User user, Item item) {
+            changes.publish(new ChangeEvent.LoanExtended(user.getId(), item.getId(), ((Loanable) item).getDueDate()));
+        }
+    }
+
+    private record PendingLoan(List<Item> history, Item item) {
     }
 
     /**
@@ -56,18 +420,21 @@ public class Library implements Serializable {
      * @return lista znalezionych przedmiotów
      */
     public List<Item> searchItems(String query) {
-        return items.values().stream()
-            .filter(item -> item.getTitle().toLowerCase().contains(query.toLowerCase()))
+        byte[] phrase = Item.searchKeyOf(query);
+        return catalog.get().stream()
+            .filter(item -> item.titleContains(phrase))
             .toList();
     }
 
     /**
-     * Zapisuje stan biblioteki do pliku.
+     * Zapisuje stan biblioteki do pliku. Zapisywana jest spójna migawka, więc wypożyczenia
+     * mogą być realizowane w trakcie zapisu.
      */
     public void saveState() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
+        try (Snapshot snapshot = snapshot();
+             ObjectOutputStream oos = new ObjectOutputStream(
                 new FileOutputStream(SAVE_FILE))) {
-            oos.writeObject(this);
+            snapshot.run(() -> oos.writeObject(this));
         } catch (IOException e) {
             System.err.println("Błąd podczas zapisywania stanu biblioteki: " + e.getMessage());
         }
@@ -92,20 +459,24 @@ public class Library implements Serializable {
      * @return tekst raportu
      */
     public String generateLoanReport() {
-        StringBuilder report = new StringBuilder("=== Raport Wypożyczeń ===\n\n");
-        for (User user : users) {
-            List<Item> borrowedItems = user.getBorrowedItems();
-            if (!borrowedItems.isEmpty()) {
-                report.append(String.format("Czytelnik: %s %s\n", user.getFirstName(), user.getLastName()));
-                for (Item item : borrowedItems) {
-                    report.append(String.format("- %s (termin zwrotu: %s)\n", 
-                        item.getTitle(), 
-                        ((Loanable)item).getDueDate()));
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.call(() -> {
+                StringBuilder report = new StringBuilder("=== Raport Wypożyczeń ===\n\n");
+                for (User user : users.get()) {
+                    List<Item> borrowedItems = user.getBorrowedItems();
+                    if (!borrowedItems.isEmpty()) {
+                        report.append(String.format("Czytelnik: %s %s\n", user.getFirstName(), user.getLastName()));
+                        for (Item item : borrowedItems) {
+                            report.append(String.format("- %s (termin zwrotu: %s)\n", 
+                                item.getTitle(), 
+                                ((Loanable)item).getDueDate()));
+                        }
+                        report.append("\n");
+                    }
                 }
-                report.append("\n");
-            }
+                return report.toString();
+            });
         }
-        return report.toString();
     }
 
     /**
@@ -114,7 +485,7 @@ public class Library implements Serializable {
      * @param item przedmiot do dodania
      */
     public void addToCategory(String categoryName, Item item) {
-        categories.computeIfAbsent(categoryName, k -> new HashSet<>()).add(item);
+        categories.computeIfAbsent(categoryName, k -> ConcurrentHashMap.newKeySet()).add(item);
     }
 
     /**
@@ -132,28 +503,10 @@ public class Library implements Serializable {
      */
     public boolean saveItemsToDataFile() {
         File file = new File(ITEMS_DATA_FILE);
-        try (DataOutputStream dos = new DataOutputStream(
+        try (Snapshot snapshot = snapshot();
+             DataOutputStream dos = new DataOutputStream(
                 new BufferedOutputStream(new FileOutputStream(file)))) {
-            
-            dos.writeInt(items.size());
-            for (Item item : items.values()) {
-                // Zapis podstawowych informacji
-                dos.writeUTF(item.getId());
-                dos.writeUTF(item.getTitle());
-                dos.writeInt(item.getYearOfPublication());
-                
-                if (item instanceof Book book) {
-                    dos.writeUTF("BOOK");
-                    dos.writeUTF(book.getAuthor());
-                    dos.writeUTF(book.getGenre());
-                    dos.writeBoolean(book.isAvailable());
-                } else if (item instanceof Magazine magazine) {
-                    dos.writeUTF("MAGAZINE");
-                    dos.writeInt(magazine.getIssueNumber());
-                    dos.writeUTF(magazine.getPublisher());
-                    dos.writeBoolean(magazine.isAvailable());
-                }
-            }
+            snapshot.run(() -> writeItems(dos));
             return true;
         } catch (IOException e) {
             Logger.getLogger(Library.class.getName())
@@ -162,6 +515,29 @@ public class Library implements Serializable {
         }
     }
 
+    private void writeItems(DataOutputStream dos) throws IOException {
+        List<Item> snapshotItems = catalog.get();
+        dos.writeInt(snapshotItems.size());
+        for (Item item : snapshotItems) {
+            // Zapis podstawowych informacji
+            dos.writeUTF(item.getId());
+            dos.writeUTF(item.getTitle());
+            dos.writeInt(item.getYearOfPublication());
+            
+            if (item instanceof Book book) {
+                dos.writeUTF("BOOK");
+                dos.writeUTF(book.getAuthor());
+                dos.writeUTF(book.getGenre());
+                dos.writeBoolean(book.isAvailable());
+            } else if (item instanceof Magazine magazine) {
+                dos.writeUTF("MAGAZINE");
+                dos.writeInt(magazine.getIssueNumber());
+                dos.writeUTF(magazine.getPublisher());
+                dos.writeBoolean(magazine.isAvailable());
+            }
+        }
+    }
+
     /**
      * Wczytuje dane o przedmiotach z pliku binarnego.
      * @return true jeśli odczyt się powiódł, false w przeciwnym razie
@@ -176,8 +552,8 @@ public class Library implements Serializable {
         try (DataInputStream dis = new DataInputStream(
                 new BufferedInputStream(new FileInputStream(file)))) {
             
-            items.clear();
             int itemCount = dis.readInt();
+            List<Item> loadedItems = new ArrayList<>(itemCount);
             
             for (int i = 0; i < itemCount; i++) {
                 String id = dis.readUTF();
@@ -190,7 +566,7 @@ public class Library implements Serializable {
                         String author = dis.readUTF();
                         String genre = dis.readUTF();
                         boolean available = dis.readBoolean();
-                        Book book = new Book(title, author, genre, year);
+                        Book book = new Book(id, title, author, genre, year);
                         if (!available) book.borrow();
                         yield book;
                     }
@@ -198,14 +574,22 @@ public class Library implements Serializable {
                         int issueNumber = dis.readInt();
                         String publisher = dis.readUTF();
                         boolean available = dis.readBoolean();
-                        Magazine magazine = new Magazine(title, year, issueNumber, publisher);
+                        Magazine magazine = new Magazine(id, title, year, issueNumber, publisher);
                         if (!available) magazine.borrow();
                         yield magazine;
                     }
                     default -> throw new IOException("Nieznany typ przedmiotu: " + type);
                 };
-                items.put(id, item);
+                loadedItems.add(item);
             }
+            Versions.commit(() -> {
+                catalog.set(PersistentVector.of(loadedItems));
+                items.clear();
+                for (Item item : loadedItems) {
+                    items.put(item.getKey(), item);
+                }
+                changes.publish(new ChangeEvent.CatalogReloaded(loadedItems.size()));
+            });
             return true;
         } catch (IOException e) {
             Logger.getLogger(Library.class.getName())
@@ -215,14 +599,23 @@ public class Library implements Serializable {
     }
 
     /**
-     * Zapisuje dane o użytkownikach do pliku serializowanego.
+     * Zapisuje dane o użytkownikach i bibliotekarzach do pliku binarnego ({@link HumanCodec}).
+     * Wypożyczone pozycje zapisywane są jako identyfikatory przedmiotów.
      * @return true jeśli zapis się powiódł, false w przeciwnym razie
      */
     public boolean saveUsersToFile() {
         File file = new File(USERS_DATA_FILE);
-        try (ObjectOutputStream oos = new ObjectOutputStream(
+        try (Snapshot snapshot = snapshot();
+             HumanCodec.Encoder encoder = HumanCodec.newEncoder(
                 new BufferedOutputStream(new FileOutputStream(file)))) {
-            oos.writeObject(new ArrayList<>(users)); // Tworzymy kopię listy
+            snapshot.run(() -> {
+                for (User user : users.get()) {
+                    encoder.write(user);
+                }
+            });
+            for (Librarian librarian : librarians) {
+                encoder.write(librarian);
+            }
             return true;
         } catch (IOException e) {
             Logger.getLogger(Library.class.getName())
@@ -232,12 +625,42 @@ public class Library implements Serializable {
     }
 
     /**
-     * Wczytuje dane o użytkownikach z pliku serializowanego.
+     * Wczytuje dane o użytkownikach i bibliotekarzach z pliku binarnego.
+     * Przedmioty powinny zostać wczytane wcześniej, aby odtworzyć wypożyczenia.
+     * Jeśli plik binarny nie istnieje, wczytywany jest plik w starym formacie serializacji Javy.
      * @return true jeśli odczyt się powiódł, false w przeciwnym razie
      */
-    @SuppressWarnings("unchecked")
     public boolean loadUsersFromFile() {
         File file = new File(USERS_DATA_FILE);
+        if (!file.exists()) {
+            return loadLegacyUsersFile();
+        }
+
+        try (HumanCodec.Decoder decoder = HumanCodec.newDecoder(
+                new BufferedInputStream(new FileInputStream(file)), this::findItem)) {
+            List<User> loadedUsers = new ArrayList<>();
+            List<Librarian> loadedLibrarians = new ArrayList<>();
+            Human human;
+            while ((human = decoder.read()) != null) {
+                if (human instanceof User user) {
+                    loadedUsers.add(user);
+                } else if (human instanceof Librarian librarian) {
+                    loadedLibrarians.add(librarian);
+                }
+            }
+            replaceUsers(loadedUsers);
+            librarians = loadedLibrarians;
+            return true;
+        } catch (IOException e) {
+            Logger.getLogger(Library.class.getName())
+                  .log(Level.SEVERE, "Błąd odczytu użytkowników", e);
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean loadLegacyUsersFile() {
+        File file = new File(LEGACY_USERS_DATA_FILE);
         if (!file.exists()) {
             System.out.println("Plik z danymi użytkowników nie istnieje.");
             return false;
@@ -245,7 +668,8 @@ public class Library implements Serializable {
 
         try (ObjectInputStream ois = new ObjectInputStream(
                 new BufferedInputStream(new FileInputStream(file)))) {
-            users = (List<User>) ois.readObject();
+            List<User> loadedUsers = (List<User>) ois.readObject();
+            replaceUsers(loadedUsers);
             return true;
         } catch (IOException | ClassNotFoundException e) {
             Logger.getLogger(Library.class.getName())
@@ -254,6 +678,25 @@ public class Library implements Serializable {
         }
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        items = new ConcurrentHashMap<>();
+        for (Item item : catalog.get()) {
+            items.put(item.getKey(), item);
+        }
+        if (finePolicy == null) {
+            finePolicy = FinePolicy.DEFAULT;
+        }
+        if (fineLedger == null) {
+            fineLedger = new FineLedger();
+        }
+        if (changes == null) {
+            changes = new ChangeLog();
+        }
+        demandAnalytics = new DemandAnalytics();
+        Versions.commit(this::attachLoanListeners);
+    }
+
     // Metoda main do demonstracji działania systemu
     public static void main(String[] args) {
         Library library = new Library();
@@ -292,7 +735,8 @@ public class Library implements Serializable {
             System.out.println("4. Zwróć książkę");
             System.out.println("5. Wyświetl wszystkie książki");
             System.out.println("6. Wyświetl wszystkie czasopisma");
-            System.out.println("7. Powrót");
+            System.out.println("7. Czytelnicy wypożyczający tę pozycję wypożyczali też...");
+            System.out.println("8. Powrót");
             System.out.print("Wybierz opcję: ");
             
             int choice = scanner.nextInt();
@@ -308,10 +752,10 @@ public class Library implements Serializable {
                 case 3 -> {
                     System.out.print("Podaj ID książki do wypożyczenia: ");
                     String itemId = scanner.nextLine();
-                    Item item = library.items.get(itemId);
+                    Item item = library.findItem(itemId);
                     if (item instanceof Loanable) {
                         try {
-                            ((Loanable) item).borrow();
+                            library.borrowItem(item);
                             System.out.println("Wypożyczono książkę: " + item.getTitle());
                         } catch (IllegalStateException e) {
                             System.out.println("Książka jest już wypożyczona.");
@@ -323,13 +767,19 @@ public class Library implements Serializable {
                 case 4 -> {
                     System.out.print("Podaj ID książki do zwrotu: ");
                     String itemId = scanner.nextLine();
-                    Item item = library.items.get(itemId);
+                    Item item = library.findItem(itemId);
                     if (item instanceof Loanable) {
                         try {
-                            ((Loanable) item).returnItem();
+                            ReturnReceipt receipt = library.returnItem(item);
                             System.out.println("Zwrócono książkę: " + item.getTitle());
-                        } catch (OverdueException e) {
-                            System.out.println("Książka jest przetrzymana: " + e.getMessage());
+                            if (receipt.fine() > 0) {
+                                System.out.printf("Zwrot po terminie (%d dni), kara: %s%n",
+                                    receipt.daysOverdue(), FineLedger.formatAmount(receipt.fine()));
+                            } else if (receipt.daysOverdue() > 0) {
+                                System.out.printf("Zwrot po terminie (%d dni)%n", receipt.daysOverdue());
+                            }
+                        } catch (IllegalStateException e) {
+                            System.out.println("Książka nie jest wypożyczona.");
                         }
                     } else {
                         System.out.println("Nie znaleziono książki o podanym ID.");
@@ -337,17 +787,29 @@ public class Library implements Serializable {
                 }
                 case 5 -> {
                     System.out.println("=== Wszystkie Książki ===");
-                    library.items.values().stream()
-                        .filter(item -> item instanceof Book)
+                    library.listItems(Book.class)
                         .forEach(item -> System.out.printf("ID: %s, Tytuł: %s%n", item.getId(), item.getTitle()));
                 }
                 case 6 -> {
                     System.out.println("=== Wszystkie Czasopisma ===");
-                    library.items.values().stream()
-                        .filter(item -> item instanceof Magazine)
+                    library.listItems(Magazine.class)
                         .forEach(item -> System.out.printf("ID: %s, Tytuł: %s%n", item.getId(), item.getTitle()));
                 }
                 case 7 -> {
+                    System.out.print("Podaj ID pozycji: ");
+                    String itemId = scanner.nextLine();
+                    Item item = library.findItem(itemId);
+                    if (item == null) {
+                        System.out.println("Nie znaleziono pozycji o podanym ID.");
+                    } else {
+                        List<Item> alsoBorrowed = library.getAlsoBorrowed(item);
+                        if (alsoBorrowed.isEmpty()) {
+                            System.out.println("Brak poleceń dla tej pozycji.");
+                        }
+                        alsoBorrowed.forEach(Item::displayDetails);
+                    }
+                }
+                case 8 -> {
                     return;
                 }
                 default -> System.out.println("Nieprawidłowa opcja!");
@@ -363,7 +825,10 @@ public class Library implements Serializable {
             System.out.println("3. Zapisz stan");
             System.out.println("4. Zapisz dane przedmiotów");
             System.out.println("5. Zapisz dane użytkowników");
-            System.out.println("6. Powrót");
+            System.out.println("6. Importuj katalog z pliku (CSV/JSONL)");
+            System.out.println("7. Raport popytu");
+            System.out.println("8. Nalicz kary (przebieg nocny)");
+            System.out.println("9. Powrót");
             System.out.print("Wybierz opcję: ");
             
             int choice = scanner.nextInt();
@@ -419,6 +884,19 @@ public class Library implements Serializable {
                     }
                 }
                 case 6 -> {
+                    System.out.print("Ścieżka do pliku: ");
+                    String path = scanner.nextLine();
+                    try {
+                        ImportReport report = new CatalogImporter(library).importFile(java.nio.file.Path.of(path));
+                        System.out.println(report);
+                        report.getRejectedRows().stream().limit(20).forEach(System.out::println);
+                    } catch (IOException | IllegalArgumentException e) {
+                        System.out.println("Błąd importu: " + e.getMessage());
+                    }
+                }
+                case 7 -> System.out.println(library.generateDemandReport(5));
+                case 8 -> System.out.println(library.runFineAccrual());
+                case 9 -> {
                     return;
                 }
                 default -> System.out.println("Nieprawidłowa opcja!");
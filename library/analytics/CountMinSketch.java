@@ -0,0 +1,68 @@
+package library.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Szkic Count-Min: przybliżone liczniki dla dowolnie wielu kluczy w stałej pamięci.
+ * Oszacowanie nigdy nie jest mniejsze od rzeczywistej liczby wystąpień, a błąd
+ * jest ograniczony przez {@code sumaWszystkich / szerokość} z dużym prawdopodobieństwem.
+ * Klasa nie jest bezpieczna wątkowo.
+ */
+class CountMinSketch {
+    private static final int[] SEEDS = {0x9E3779B9, 0x7F4A7C15, 0x2545F491, 0x6C8E9CF5, 0x1B873593, 0x5BD1E995};
+
+    private final int depth;
+    private final int width;
+    private final int[] table;
+
+    CountMinSketch(int depth, int width) {
+        if (depth > SEEDS.length) {
+            throw new IllegalArgumentException("Maksymalna głębokość szkicu to " + SEEDS.length);
+        }
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Szerokość szkicu musi być potęgą dwójki");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.table = new int[depth * width];
+    }
+
+    void add(String key, int count) {
+        int hash = key.hashCode();
+        for (int row = 0; row < depth; row++) {
+            table[row * width + index(hash, row)] += count;
+        }
+    }
+
+    int estimate(String key) {
+        int hash = key.hashCode();
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + index(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Odejmuje liczniki innego szkicu o tych samych wymiarach (np. wygasającego kubełka okna).
+     */
+    void subtract(CountMinSketch other) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] -= other.table[i];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    private int index(int hash, int row) {
+        int h = hash ^ SEEDS[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & (width - 1);
+    }
+}
@@ -0,0 +1,80 @@
+package library.analytics;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import library.interfaces.LoanListener;
+import library.models.Item;
+import library.models.User;
+import library.time.LibraryClock;
+
+/**
+ * Strumieniowa analiza popytu: najczęściej wypożyczane tytuły, autorzy, gatunki i wydawcy
+ * w ostatniej dobie, tygodniu i miesiącu.
+ * <p>
+ * Każda para (wymiar, okno) ma własny {@link SlidingTopK}, więc pamięć jest stała niezależnie
+ * od liczby wypożyczeń i pozycji w katalogu, a zapytanie o ranking nie wymaga przeglądania
+ * historii wypożyczeń. Liczby w rankingu są oszacowaniami i mogą być nieznacznie zawyżone.
+ */
+public class DemandAnalytics implements LoanListener {
+    public static final int MAX_TOP_K = SlidingTopK.CANDIDATES;
+
+    private final Clock clock;
+    private final Map<Dimension, Map<TimeWindow, SlidingTopK>> windows = new EnumMap<>(Dimension.class);
+
+    public DemandAnalytics() {
+        this(LibraryClock.get());
+    }
+
+    /**
+     * Tworzy analizę popytu z podanym zegarem.
+     * @param clock zegar wyznaczający chwilę wypożyczenia i koniec okien
+     */
+    public DemandAnalytics(Clock clock) {
+        this.clock = clock;
+        for (Dimension dimension : Dimension.values()) {
+            Map<TimeWindow, SlidingTopK> byWindow = new EnumMap<>(TimeWindow.class);
+            for (TimeWindow window : TimeWindow.values()) {
+                byWindow.put(window, new SlidingTopK(window));
+            }
+            windows.put(dimension, byWindow);
+        }
+    }
+
+    @Override
+    public void onLoan(User user, Item item) {
+        recordLoan(item);
+    }
+
+    /**
+     * Rejestruje wypożyczenie przedmiotu w chwili wskazanej przez zegar.
+     * @param item wypożyczony przedmiot
+     */
+    public void recordLoan(Item item) {
+        long now = clock.millis();
+        for (Dimension dimension : Dimension.values()) {
+            String key = dimension.keyOf(item);
+            if (key != null) {
+                for (SlidingTopK window : windows.get(dimension).values()) {
+                    window.record(key, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Zwraca ranking najczęściej wypożyczanych wartości wymiaru w oknie czasowym.
+     * @param dimension wymiar rankingu
+     * @param window okno czasowe
+     * @param k liczba pozycji rankingu
+     * @return do k pozycji, od najczęściej wypożyczanej
+     * @throws IllegalArgumentException gdy k jest spoza zakresu 1..{@value #MAX_TOP_K}
+     */
+    public List<DemandEntry> topK(Dimension dimension, TimeWindow window, int k) {
+        if (k <= 0 || k > MAX_TOP_K) {
+            throw new IllegalArgumentException("Liczba pozycji rankingu musi być z zakresu 1.." + MAX_TOP_K);
+        }
+        return windows.get(dimension).get(window).top(k, clock.millis());
+    }
+}
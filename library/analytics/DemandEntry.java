@@ -0,0 +1,9 @@
+package library.analytics;
+
+/**
+ * Pozycja rankingu popytu.
+ * @param key wartość wymiaru (tytuł, autor, gatunek lub wydawca)
+ * @param estimatedLoans szacowana liczba wypożyczeń w oknie (nigdy nie zaniżona)
+ */
+public record DemandEntry(String key, long estimatedLoans) {
+}
@@ -0,0 +1,39 @@
+package library.analytics;
+
+import library.models.Book;
+import library.models.Item;
+import library.models.Magazine;
+
+/**
+ * Wymiary, według których liczony jest popyt na wypożyczenia.
+ */
+public enum Dimension {
+    TITLE("Tytuły"),
+    AUTHOR("Autorzy"),
+    GENRE("Gatunki"),
+    PUBLISHER("Wydawcy");
+
+    private final String label;
+
+    Dimension(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Pobiera wartość wymiaru dla przedmiotu.
+     * @param item wypożyczony przedmiot
+     * @return klucz wymiaru lub null, gdy wymiar nie dotyczy tego typu przedmiotu
+     */
+    String keyOf(Item item) {
+        return switch (this) {
+            case TITLE -> item.getTitle();
+            case AUTHOR -> item instanceof Book book ? book.getAuthor() : null;
+            case GENRE -> item instanceof Book book ? book.getGenre() : null;
+            case PUBLISHER -> item instanceof Magazine magazine ? magazine.getPublisher() : null;
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package library.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Najczęstsze klucze w przesuwnym oknie czasowym przy stałym zużyciu pamięci.
+ * <p>
+ * Każdy kubełek okna ma własny szkic {@link CountMinSketch}, a szkic całego okna jest ich sumą:
+ * wygasający kubełek jest od niego odejmowany i czyszczony. Obok szkicu utrzymywana jest
+ * ograniczona lista kandydatów na najczęstsze klucze; nowy klucz wypiera najsłabszego kandydata,
+ * jeśli jego oszacowanie jest większe. Ranking jest przeliczany tylko po zmianie kandydatów,
+ * więc zapytanie nie zależy od liczby zarejestrowanych wypożyczeń.
+ */
+class SlidingTopK {
+    static final int CANDIDATES = 64;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2_048;
+
+    private final long bucketMillis;
+    private final CountMinSketch[] buckets;
+    private final CountMinSketch window = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    private final String[] candidateKeys = new String[CANDIDATES];
+    private final int[] candidateCounts = new int[CANDIDATES];
+    private int candidateCount;
+    private long currentBucket = Long.MIN_VALUE;
+    private List<DemandEntry> ranking = List.of();
+    private boolean rankingStale;
+
+    SlidingTopK(TimeWindow timeWindow) {
+        this.bucketMillis = timeWindow.getBucketLength().toMillis();
+        this.buckets = new CountMinSketch[timeWindow.getBuckets()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        }
+    }
+
+    /**
+     * Rejestruje wystąpienie klucza w chwili {@code epochMillis}.
+     * Zdarzenia starsze niż okno są pomijane.
+     */
+    synchronized void record(String key, long epochMillis) {
+        long bucket = Math.floorDiv(epochMillis, bucketMillis);
+        advance(bucket);
+        if (bucket <= currentBucket - buckets.length) {
+            return;
+        }
+        buckets[(int) Math.floorMod(bucket, (long) buckets.length)].add(key, 1);
+        window.add(key, 1);
+        offer(key, window.estimate(key));
+    }
+
+    /**
+     * Zwraca najczęstsze klucze w oknie kończącym się w chwili {@code nowMillis}.
+     */
+    synchronized List<DemandEntry> top(int k, long nowMillis) {
+        advance(Math.floorDiv(nowMillis, bucketMillis));
+        if (rankingStale) {
+            List<DemandEntry> entries = new ArrayList<>(candidateCount);
+            for (int i = 0; i < candidateCount; i++) {
+                entries.add(new DemandEntry(candidateKeys[i], candidateCounts[i]));
+            }
+            entries.sort(Comparator.comparingLong(DemandEntry::estimatedLoans).reversed()
+                .thenComparing(DemandEntry::key));
+            ranking = Collections.unmodifiableList(entries);
+            rankingStale = false;
+        }
+        return ranking.subList(0, Math.min(k, ranking.size()));
+    }
+
+    private void offer(String key, int estimate) {
+        int weakest = -1;
+        for (int i = 0; i < candidateCount; i++) {
+            if (candidateKeys[i].equals(key)) {
+                candidateCounts[i] = estimate;
+                rankingStale = true;
+                return;
+            }
+            if (weakest < 0 || candidateCounts[i] < candidateCounts[weakest]) {
+                weakest = i;
+            }
+        }
+        if (candidateCount < CANDIDATES) {
+            candidateKeys[candidateCount] = key;
+            candidateCounts[candidateCount] = estimate;
+            candidateCount++;
+            rankingStale = true;
+        } else if (estimate > candidateCounts[weakest]) {
+            candidateKeys[weakest] = key;
+            candidateCounts[weakest] = estimate;
+            rankingStale = true;
+        }
+    }
+
+    /**
+     * Przesuwa okno do kubełka {@code bucket}, wygaszając kubełki, które z niego wypadły,
+     * i przeliczając oszacowania kandydatów.
+     */
+    private void advance(long bucket) {
+        if (currentBucket == Long.MIN_VALUE) {
+            currentBucket = bucket;
+            return;
+        }
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long expired = Math.min(bucket - currentBucket, buckets.length);
+        for (long i = 1; i <= expired; i++) {
+            CountMinSketch old = buckets[(int) Math.floorMod(currentBucket + i, (long) buckets.length)];
+            window.subtract(old);
+            old.clear();
+        }
+        currentBucket = bucket;
+
+        int kept = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int estimate = window.estimate(candidateKeys[i]);
+            if (estimate > 0) {
+                candidateKeys[kept] = candidateKeys[i];
+                candidateCounts[kept] = estimate;
+                kept++;
+            }
+        }
+        for (int i = kept; i < candidateCount; i++) {
+            candidateKeys[i] = null;
+        }
+        candidateCount = kept;
+        rankingStale = true;
+    }
+}
@@ -0,0 +1,35 @@
+package library.analytics;
+
+import java.time.Duration;
+
+/**
+ * Przesuwne okna czasowe raportu popytu. Okno dzielone jest na kubełki,
+ * które wygasają w całości, więc granica okna ma dokładność jednego kubełka.
+ */
+public enum TimeWindow {
+    DAY("Ostatnia doba", Duration.ofHours(1), 24),
+    WEEK("Ostatni tydzień", Duration.ofDays(1), 7),
+    MONTH("Ostatni miesiąc", Duration.ofDays(1), 30);
+
+    private final String label;
+    private final Duration bucketLength;
+    private final int buckets;
+
+    TimeWindow(String label, Duration bucketLength, int buckets) {
+        this.label = label;
+        this.bucketLength = bucketLength;
+        this.buckets = buckets;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    Duration getBucketLength() {
+        return bucketLength;
+    }
+
+    int getBuckets() {
+        return buckets;
+    }
+}
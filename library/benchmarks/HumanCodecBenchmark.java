@@ -0,0 +1,126 @@
+package library.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import library.interfaces.Loanable;
+import library.models.*;
+
+/**
+ * Porównuje zapis użytkowników przez serializację Javy (dotychczasowy plik users_data.ser)
+ * z formatem {@link HumanCodec}: rozmiar danych oraz przepustowość kodowania i dekodowania.
+ * <p>
+ * Uruchomienie: {@code java library.benchmarks.HumanCodecBenchmark [liczbaUżytkowników]}
+ */
+public class HumanCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int LOAN_ATTEMPTS_PER_USER = 3;
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+
+        Map<String, Item> catalog = new HashMap<>();
+        List<Item> catalogItems = new ArrayList<>();
+        for (int i = 0; i < userCount / 2 + 1; i++) {
+            Item item = i % 3 == 0
+                ? new Magazine("Czasopismo " + i, 2000 + i % 25, i % 12 + 1, "Wydawca " + i % 40)
+                : new Book("Książka " + i, "Autor " + i % 5000, "Gatunek " + i % 30, 1900 + i % 125);
+            catalog.put(item.getId(), item);
+            catalogItems.add(item);
+        }
+
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("Imię" + i, "Nazwisko" + i);
+            for (int l = 0; l < LOAN_ATTEMPTS_PER_USER; l++) {
+                Item item = catalogItems.get(random.nextInt(catalogItems.size()));
+                if (item instanceof Loanable loanable && loanable.isAvailable()) {
+                    user.borrowItem(item);
+                }
+            }
+            users.add(user);
+        }
+
+        System.out.printf("Użytkownicy: %d, przedmioty w katalogu: %d%n", users.size(), catalog.size());
+        System.out.printf("%-22s %12s %16s %16s%n", "Format", "Rozmiar [B]", "Zapis [rek/s]", "Odczyt [rek/s]");
+
+        report("Serializacja Javy", users.size(), measure(() -> javaEncode(users)),
+            javaEncode(users), bytes -> javaDecode(bytes));
+        report("HumanCodec", users.size(), measure(() -> codecEncode(users)),
+            codecEncode(users), bytes -> codecDecode(bytes, catalog));
+    }
+
+    private static byte[] javaEncode(List<User> users) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new ArrayList<>(users));
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int javaDecode(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return ((List<User>) ois.readObject()).size();
+        }
+    }
+
+    private static byte[] codecEncode(List<User> users) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (HumanCodec.Encoder encoder = HumanCodec.newEncoder(bytes)) {
+            for (User user : users) {
+                encoder.write(user);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int codecDecode(byte[] data, Map<String, Item> catalog) throws IOException {
+        int count = 0;
+        try (HumanCodec.Decoder decoder = HumanCodec.newDecoder(new ByteArrayInputStream(data), catalog::get)) {
+            while (decoder.read() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void report(String name, int records, long encodeNanos, byte[] data,
+                               Task<byte[], Integer> decode) throws Exception {
+        long decodeNanos = measure(() -> decode.run(data));
+        System.out.printf("%-22s %12d %16.0f %16.0f%n", name, data.length,
+            records * 1e9 / encodeNanos, records * 1e9 / decodeNanos);
+    }
+
+    private static long measure(Action action) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            action.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        Object run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Task<T, R> {
+        R run(T input) throws Exception;
+    }
+}
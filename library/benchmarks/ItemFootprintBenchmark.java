@@ -0,0 +1,153 @@
+package library.benchmarks;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import library.interfaces.Loanable;
+import library.models.*;
+import library.mvcc.Versioned;
+
+/**
+ * Porównuje zajętość sterty przez katalog w dotychczasowym układzie (teksty autora, gatunku,
+ * wydawcy i identyfikatora w każdym przedmiocie, daty jako {@link LocalDate}) z układem
+ * opartym na {@link MetadataDictionary}, identyfikatorach UUID w dwóch liczbach i tytułach w UTF-8.
+ * Mierzona jest różnica zajętej pamięci po odśmiecaniu, razem z indeksem przedmiotów po identyfikatorze.
+ * Polskie tytuły nie mieszczą się w Latin-1, więc {@link String} przechowuje je po dwa bajty na znak.
+ * <p>
+ * Uruchomienie: {@code java library.benchmarks.ItemFootprintBenchmark [liczbaPrzedmiotów]}
+ */
+public class ItemFootprintBenchmark {
+    private static final int AUTHORS = 20_000;
+    private static final int GENRES = 40;
+    private static final int PUBLISHERS = 300;
+    private static final int BORROWED_PERCENT = 30;
+
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long legacy = measure(() -> buildLegacy(count));
+        long compact = measure(() -> buildCompact(count));
+
+        System.out.printf("Przedmioty: %d (wypożyczone: %d%%)%n", count, BORROWED_PERCENT);
+        System.out.printf("%-26s %14s %12s%n", "Układ", "Sterta [MB]", "B/przedmiot");
+        System.out.printf("%-26s %14.1f %12.1f%n", "Dotychczasowy", legacy / 1048576.0, (double) legacy / count);
+        System.out.printf("%-26s %14.1f %12.1f%n", "Słowniki i zwarte pola", compact / 1048576.0, (double) compact / count);
+        System.out.printf("Redukcja: %.1f%%%n", 100.0 * (legacy - compact) / legacy);
+    }
+
+    /**
+     * Teksty tworzone są osobno dla każdego rekordu, tak jak przy odczycie z pliku lub importu.
+     */
+    private static String title(int i) {
+        return "Pan Tadeusz, czyli ostatni zajazd na Litwie, księga " + i;
+    }
+
+    private static String author(int i) {
+        return new StringBuilder("Autor ").append(i % AUTHORS).toString();
+    }
+
+    private static String genre(int i) {
+        return new StringBuilder("Gatunek ").append(i % GENRES).toString();
+    }
+
+    private static String publisher(int i) {
+        return new StringBuilder("Wydawnictwo ").append(i % PUBLISHERS).toString();
+    }
+
+    private static Object buildLegacy(int count) {
+        Map<String, LegacyItem> index = new HashMap<>(count * 2);
+        LocalDate today = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < count; i++) {
+            LegacyLoan loan = i % 100 < BORROWED_PERCENT
+                ? new LegacyLoan(today.minusDays(i % 30), today.minusDays(i % 30).plusDays(30))
+                : LegacyLoan.AVAILABLE;
+            String id = UUID.randomUUID().toString();
+            LegacyItem item = i % 4 == 0
+                ? new LegacyMagazine(id, title(i), 2000 + i % 25, i % 12 + 1, publisher(i), loan)
+                : new LegacyBook(id, title(i), 1900 + i % 125, author(i), genre(i), loan);
+            index.put(item.id, item);
+        }
+        return index;
+    }
+
+    private static Object buildCompact(int count) {
+        Map<UUID, Item> index = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Item item = i % 4 == 0
+                ? new Magazine(title(i), 2000 + i % 25, i % 12 + 1, publisher(i))
+                : new Book(title(i), author(i), genre(i), 1900 + i % 125);
+            if (i % 100 < BORROWED_PERCENT) {
+                ((Loanable) item).borrow();
+            }
+            index.put(item.getKey(), item);
+        }
+        return index;
+    }
+
+    private static long measure(Builder builder) {
+        long before = usedHeap();
+        retained = builder.build();
+        long after = usedHeap();
+        retained = null;
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @FunctionalInterface
+    private interface Builder {
+        Object build();
+    }
+
+    private record LegacyLoan(LocalDate borrowDate, LocalDate dueDate) implements Serializable {
+        static final LegacyLoan AVAILABLE = new LegacyLoan(null, null);
+    }
+
+    private abstract static class LegacyItem {
+        final String id;
+        final String title;
+        final int year;
+        final Versioned<LegacyLoan> loan;
+
+        LegacyItem(String id, String title, int year, LegacyLoan loan) {
+            this.id = id;
+            this.title = title;
+            this.year = year;
+            this.loan = new Versioned<>(loan);
+        }
+    }
+
+    private static final class LegacyBook extends LegacyItem {
+        final String author;
+        final String genre;
+
+        LegacyBook(String id, String title, int year, String author, String genre, LegacyLoan loan) {
+            super(id, title, year, loan);
+            this.author = author;
+            this.genre = genre;
+        }
+    }
+
+    private static final class LegacyMagazine extends LegacyItem {
+        final int issueNumber;
+        final String publisher;
+
+        LegacyMagazine(String id, String title, int year, int issueNumber, String publisher, LegacyLoan loan) {
+            super(id, title, year, loan);
+            this.issueNumber = issueNumber;
+            this.publisher = publisher;
+        }
+    }
+}
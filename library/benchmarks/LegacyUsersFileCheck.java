@@ -0,0 +1,70 @@
+package library.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import library.interfaces.Loanable;
+import library.models.*;
+
+/**
+ * Sprawdza zgodność z plikiem {@code users_data.ser} zapisanym przez pierwotną wersję programu
+ * (serializacja Javy): odczyt użytkowników, ich wypożyczeń i historii, a następnie ponowny zapis
+ * i odczyt w bieżącej wersji.
+ * <p>
+ * Uruchomienie: {@code java library.benchmarks.LegacyUsersFileCheck [plik]}
+ * (domyślnie {@code library/benchmarks/users_data_baseline.ser}: Jan Kowalski wypożyczył „Lalkę”
+ * i „Wiedzę i Życie”, Anna Nowak wypożyczyła i oddała „Solaris”).
+ */
+public class LegacyUsersFileCheck {
+    public static void main(String[] args) throws Exception {
+        String path = args.length > 0 ? args[0] : "library/benchmarks/users_data_baseline.ser";
+        List<User> users;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
+            users = readUsers(ois);
+        }
+        verify(users, "odczyt pliku");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new ArrayList<>(users));
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            verify(readUsers(ois), "ponowny zapis i odczyt");
+        }
+        System.out.println("Plik " + path + " jest zgodny.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<User> readUsers(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        return (List<User>) ois.readObject();
+    }
+
+    private static void verify(List<User> users, String stage) {
+        check(users.size() == 2, stage, "liczba użytkowników");
+        User jan = users.get(0);
+        User anna = users.get(1);
+        check(jan.getFirstName().equals("Jan") && jan.getLastName().equals("Kowalski"), stage, "dane Jana");
+        check(jan.getBorrowedItems().size() == 2 && jan.getBorrowingHistory().size() == 2, stage, "wypożyczenia Jana");
+        Book lalka = (Book) jan.getBorrowedItems().get(0);
+        check(lalka.getTitle().equals("Lalka") && lalka.getAuthor().equals("Bolesław Prus")
+            && lalka.getGenre().equals("Powieść") && lalka.getYearOfPublication() == 1890, stage, "dane książki");
+        check(!lalka.isAvailable() && lalka.getDueDate() != null, stage, "stan wypożyczenia książki");
+        Magazine magazine = (Magazine) jan.getBorrowedItems().get(1);
+        check(magazine.getTitle().equals("Wiedza i Życie") && magazine.getIssueNumber() == 5
+            && magazine.getPublisher().equals("Prószyński"), stage, "dane czasopisma");
+        check(jan.getBorrowedItems().get(0) == jan.getBorrowingHistory().get(0), stage, "wspólne obiekty w historii");
+        check(anna.getBorrowedItems().isEmpty() && anna.getBorrowingHistory().size() == 1, stage, "wypożyczenia Anny");
+        check(((Loanable) anna.getBorrowingHistory().get(0)).isAvailable(), stage, "zwrócona książka");
+    }
+
+    private static void check(boolean condition, String stage, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Niezgodność (" + stage + "): " + what);
+        }
+    }
+}
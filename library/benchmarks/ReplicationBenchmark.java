@@ -0,0 +1,55 @@
+package library.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import library.Library;
+import library.interfaces.Loanable;
+import library.models.*;
+import library.replication.CatalogReplicator;
+import library.replication.LoopbackTransport;
+import library.replication.SyncReport;
+
+/**
+ * Mierzy ilość danych przesyłanych przy synchronizacji katalogu dwóch bibliotek
+ * ({@link CatalogReplicator}): pełne pierwsze pobranie, synchronizacja bez zmian
+ * oraz synchronizacja po niewielkiej liczbie wypożyczeń, zwrotów i nowych pozycji.
+ * <p>
+ * Uruchomienie: {@code java library.benchmarks.ReplicationBenchmark [liczbaPrzedmiotów] [liczbaZmian]}
+ */
+public class ReplicationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int changeCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Random random = new Random(42);
+
+        Library source = new Library();
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(i % 3 == 0
+                ? new Magazine("Czasopismo " + i, 2000 + i % 25, i % 12 + 1, "Wydawca " + i % 40)
+                : new Book("Książka " + i, "Autor " + i % 5000, "Gatunek " + i % 30, 1900 + i % 125));
+        }
+        source.addItems(items);
+
+        Library branch = new Library();
+        CatalogReplicator replicator = new CatalogReplicator(branch, new LoopbackTransport(source));
+        report("Pierwsza synchronizacja", replicator.sync());
+        report("Bez zmian", replicator.sync());
+
+        for (int i = 0; i < changeCount; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            if (((Loanable) item).isAvailable()) {
+                source.borrowItem(item);
+            } else {
+                source.returnItem(item);
+            }
+        }
+        source.addItem(new Book("Nowość", "Autor", "Gatunek", 2025));
+        report(changeCount + " zmian + 1 nowa pozycja", replicator.sync());
+    }
+
+    private static void report(String name, SyncReport report) {
+        System.out.printf("%-28s %s%n", name, report);
+    }
+}
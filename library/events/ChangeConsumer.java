@@ -0,0 +1,25 @@
+package library.events;
+
+import java.util.List;
+
+/**
+ * Odbiorca zmian subskrybowanych przez {@link ChangeLog#subscribe}.
+ */
+@FunctionalInterface
+public interface ChangeConsumer {
+    /**
+     * Przetwarza kolejną paczkę zmian. Wywoływane z wątku subskrypcji, nigdy równolegle.
+     * @param batch zmiany o kolejnych numerach
+     * @throws Exception błąd przetwarzania; zatrzymuje subskrypcję
+     */
+    void onBatch(List<ChangeRecord> batch) throws Exception;
+
+    /**
+     * Wywoływane, gdy części zmian nie ma już w dzienniku (odbiorca został zbyt daleko w tyle
+     * lub dziennik został wczytany z pliku). Odbiorca powinien odbudować stan z pełnych danych.
+     * @param requestedSequence numer, od którego odbiorca oczekiwał zmian
+     * @param firstAvailableSequence numer pierwszej dostępnej zmiany
+     */
+    default void onGap(long requestedSequence, long firstAvailableSequence) {
+    }
+}
@@ -0,0 +1,62 @@
+package library.events;
+
+import java.time.LocalDate;
+import library.models.ItemRecord;
+
+/**
+ * Zmiana katalogu, czytelników lub stanu wypożyczeń publikowana w {@link ChangeLog}.
+ * Identyfikator czytelnika jest null dla operacji wykonanych bez wskazania czytelnika.
+ */
+public sealed interface ChangeEvent {
+
+    /**
+     * Dodanie przedmiotu do katalogu.
+     * @param item stan dodanego przedmiotu z chwili publikacji
+     */
+    record ItemAdded(ItemRecord item) implements ChangeEvent {
+    }
+
+    /**
+     * Zastąpienie całego katalogu przedmiotami wczytanymi z pliku. Odbiorcy powinni odbudować
+     * stan katalogu z pełnych danych.
+     * @param itemCount liczba przedmiotów po wczytaniu
+     */
+    record CatalogReloaded(int itemCount) implements ChangeEvent {
+    }
+
+    /**
+     * Rejestracja czytelnika.
+     * @param userId identyfikator czytelnika
+     * @param firstName imię
+     * @param lastName nazwisko
+     */
+    record UserRegistered(String userId, String firstName, String lastName) implements ChangeEvent {
+    }
+
+    /**
+     * Wypożyczenie przedmiotu.
+     * @param userId identyfikator czytelnika lub null
+     * @param itemId identyfikator przedmiotu
+     * @param dueDate termin zwrotu
+     */
+    record ItemBorrowed(String userId, String itemId, LocalDate dueDate) implements ChangeEvent {
+    }
+
+    /**
+     * Przedłużenie terminu zwrotu.
+     * @param userId identyfikator czytelnika
+     * @param itemId identyfikator przedmiotu
+     * @param dueDate nowy termin zwrotu
+     */
+    record LoanExtended(String userId, String itemId, LocalDate dueDate) implements ChangeEvent {
+    }
+
+    /**
+     * Zwrot przedmiotu.
+     * @param userId identyfikator czytelnika lub null
+     * @param itemId identyfikator przedmiotu
+     * @param daysOverdue liczba dni opóźnienia (0 gdy zwrot w terminie)
+     */
+    record ItemReturned(String userId, String itemId, long daysOverdue) implements ChangeEvent {
+    }
+}
@@ -0,0 +1,165 @@
+package library.events;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import library.time.LibraryClock;
+
+/**
+ * Dziennik zmian (change data capture) katalogu, czytelników i wypożyczeń.
+ * <p>
+ * Każda zmiana dostaje kolejny numer i trafia do bufora cyklicznego przechowującego ostatnie
+ * {@code capacity} zmian. Publikacja nigdy nie czeka na odbiorców: każda subskrypcja czyta dziennik
+ * we własnym wątku i tempie, paczkami, i zapamiętuje pozycję, od której można ją później wznowić.
+ * Odbiorca, który zostanie w tyle o więcej niż pojemność bufora, dostaje {@link ChangeConsumer#onGap}
+ * zamiast blokować zapisy.
+ * <p>
+ * Zapisywany jest tylko numer ostatniej zmiany; po wczytaniu numeracja jest kontynuowana,
+ * a wcześniejsze zmiany nie są już dostępne.
+ */
+public class ChangeLog implements Serializable {
+    private static final long serialVersionUID = 3698841454441002359L;
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int capacity;
+    private long lastSequence;
+    private transient ChangeRecord[] ring;
+    private transient long firstRetained;
+    private transient ReentrantLock lock;
+    private transient Condition appended;
+
+    public ChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Tworzy dziennik przechowujący podaną liczbę ostatnich zmian.
+     * @param capacity pojemność bufora
+     */
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pojemność dziennika musi być dodatnia");
+        }
+        this.capacity = capacity;
+        init();
+    }
+
+    private void init() {
+        ring = new ChangeRecord[capacity];
+        firstRetained = lastSequence + 1;
+        lock = new ReentrantLock();
+        appended = lock.newCondition();
+    }
+
+    /**
+     * Publikuje zmianę. Wywoływane wewnątrz transakcji {@code Versions.commit}, dzięki czemu
+     * numery odpowiadają kolejności zatwierdzania zmian.
+     * @param event zmiana
+     * @return nadany numer kolejny
+     */
+    public long publish(ChangeEvent event) {
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            ring[(int) (sequence % capacity)] = new ChangeRecord(sequence, LibraryClock.get().instant(), event);
+            if (sequence - firstRetained >= capacity) {
+                firstRetained = sequence - capacity + 1;
+            }
+            appended.signalAll();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Odczytuje zmiany od podanego numeru. Jeśli części z nich nie ma już w buforze,
+     * odczyt zaczyna się od najstarszej dostępnej (numer pierwszego rekordu jest wtedy większy od żądanego).
+     * @param fromSequence numer pierwszej żądanej zmiany
+     * @param maxRecords maksymalna liczba zwróconych zmian
+     * @return zmiany w kolejności numerów (pusta lista, gdy brak nowych)
+     */
+    public List<ChangeRecord> read(long fromSequence, int maxRecords) {
+        lock.lock();
+        try {
+            long from = Math.max(fromSequence, firstRetained);
+            long to = Math.min(lastSequence, from + maxRecords - 1);
+            List<ChangeRecord> records = new ArrayList<>((int) Math.max(0, to - from + 1));
+            for (long sequence = from; sequence <= to; sequence++) {
+                records.add(ring[(int) (sequence % capacity)]);
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Czeka na zmianę o numerze większym niż podany.
+     * @param sequence numer ostatniej znanej zmiany
+     * @param timeout maksymalny czas oczekiwania
+     * @param unit jednostka czasu
+     * @return true jeśli pojawiła się nowa zmiana
+     * @throws InterruptedException gdy wątek został przerwany
+     */
+    public boolean awaitAfter(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (lastSequence <= sequence) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rozpoczyna subskrypcję zmian w osobnym wątku.
+     * @param fromSequence numer pierwszej zmiany do dostarczenia (np. {@link ChangeSubscription#getPosition()}
+     *                     poprzedniej subskrypcji albo {@link #getLastSequence()} + 1 dla nowych zmian)
+     * @param maxBatch maksymalna liczba zmian w jednej paczce
+     * @param consumer odbiorca zmian
+     * @return działająca subskrypcja
+     */
+    public ChangeSubscription subscribe(long fromSequence, int maxBatch, ChangeConsumer consumer) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Rozmiar paczki musi być dodatni");
+        }
+        ChangeSubscription subscription = new ChangeSubscription(this, fromSequence, maxBatch, consumer);
+        subscription.start();
+        return subscription;
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFirstRetainedSequence() {
+        lock.lock();
+        try {
+            return firstRetained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+    }
+}
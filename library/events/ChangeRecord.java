@@ -0,0 +1,12 @@
+package library.events;
+
+import java.time.Instant;
+
+/**
+ * Zmiana z nadanym numerem kolejnym. Numery rosną o jeden w kolejności zatwierdzania zmian.
+ * @param sequence numer kolejny zmiany
+ * @param timestamp chwila publikacji według zegara biblioteki
+ * @param event zmiana
+ */
+public record ChangeRecord(long sequence, Instant timestamp, ChangeEvent event) {
+}
@@ -0,0 +1,95 @@
+package library.events;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Subskrypcja dziennika zmian działająca w osobnym wątku. Dostarcza zmiany paczkami,
+ * w kolejności numerów, i zapamiętuje pozycję, od której można ją wznowić.
+ */
+public class ChangeSubscription implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ChangeSubscription.class.getName());
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    private static final long POLL_MILLIS = 100;
+
+    private final ChangeLog log;
+    private final int maxBatch;
+    private final ChangeConsumer consumer;
+    private final Thread thread;
+    private volatile long position;
+    private volatile boolean running = true;
+    private volatile Exception failure;
+
+    ChangeSubscription(ChangeLog log, long fromSequence, int maxBatch, ChangeConsumer consumer) {
+        this.log = log;
+        this.position = Math.max(1, fromSequence);
+        this.maxBatch = maxBatch;
+        this.consumer = consumer;
+        this.thread = new Thread(this::deliver, "change-subscription-" + THREAD_NUMBER.incrementAndGet());
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    private void deliver() {
+        try {
+            while (running) {
+                List<ChangeRecord> batch = log.read(position, maxBatch);
+                if (batch.isEmpty()) {
+                    log.awaitAfter(position - 1, POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                long first = batch.get(0).sequence();
+                if (first > position) {
+                    consumer.onGap(position, first);
+                }
+                consumer.onBatch(batch);
+                position = batch.get(batch.size() - 1).sequence() + 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failure = e;
+            running = false;
+            LOGGER.log(Level.SEVERE, "Subskrypcja zmian zatrzymana na pozycji " + position, e);
+        }
+    }
+
+    /**
+     * Pobiera numer następnej zmiany do dostarczenia; po zapisaniu pozwala wznowić subskrypcję.
+     * @return numer następnej zmiany
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Pobiera błąd odbiorcy, który zatrzymał subskrypcję.
+     * @return błąd lub null
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Zatrzymuje subskrypcję i czeka na zakończenie przetwarzania bieżącej paczki.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package library.fines;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import library.interfaces.Loanable;
+import library.models.Item;
+import library.models.User;
+
+/**
+ * Nocny przebieg naliczania kar za wszystkie aktywne wypożyczenia.
+ * <p>
+ * Terminy zwrotu są najpierw zbierane do tablic prymitywnych (dzień epoki i numer czytelnika)
+ * bez kopiowania list wypożyczeń i bez tworzenia obiektów dat. Kara za każde wypożyczenie
+ * liczona jest w osobnej pętli, która czyta i zapisuje tylko kolejne elementy tablic,
+ * a sumy czytelników powstają w drugim przebiegu. Wywołujący powinien przekazać czytelników
+ * z migawki, aby przebieg widział spójny stan wypożyczeń.
+ */
+public class FineAccrualEngine {
+    private final FinePolicy policy;
+
+    public FineAccrualEngine(FinePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Nalicza kwoty narastające dla wszystkich czytelników i zapisuje je w księdze.
+     * @param users czytelnicy biblioteki
+     * @param ledger księga kar
+     * @param today dzień, na który liczone są opóźnienia
+     * @return podsumowanie przebiegu
+     */
+    public AccrualSummary run(List<User> users, FineLedger ledger, LocalDate today) {
+        long start = System.nanoTime();
+        int capacity = 1_024;
+        long[] dueDays = new long[capacity];
+        int[] owners = new int[capacity];
+        int loans = 0;
+        for (int u = 0; u < users.size(); u++) {
+            List<Item> borrowed = users.get(u).borrowedItemsView();
+            for (int i = 0; i < borrowed.size(); i++) {
+                if (!(borrowed.get(i) instanceof Loanable loanable)) {
+                    continue;
+                }
+                long dueDay = loanable.getDueEpochDay();
+                if (dueDay == Loanable.NOT_BORROWED) {
+                    continue;
+                }
+                if (loans == capacity) {
+                    capacity *= 2;
+                    dueDays = Arrays.copyOf(dueDays, capacity);
+                    owners = Arrays.copyOf(owners, capacity);
+                }
+                dueDays[loans] = dueDay;
+                owners[loans] = u;
+                loans++;
+            }
+        }
+
+        long[] fines = new long[loans];
+        int overdueLoans = accrue(dueDays, loans, today.toEpochDay(), fines);
+        long[] accrued = new long[users.size()];
+        for (int i = 0; i < loans; i++) {
+            accrued[owners[i]] += fines[i];
+        }
+
+        Map<String, Long> amounts = new HashMap<>();
+        long total = 0;
+        for (int u = 0; u < accrued.length; u++) {
+            if (accrued[u] > 0) {
+                amounts.put(users.get(u).getId(), accrued[u]);
+                total += accrued[u];
+            }
+        }
+        ledger.replaceAccruing(amounts, today);
+        return new AccrualSummary(loans, overdueLoans, total, System.nanoTime() - start);
+    }
+
+    /**
+     * Pętla naliczania: dla każdego wypożyczenia liczy dni po okresie karencji
+     * i ogranicza karę do maksimum. Sumowanie po czytelnikach odbywa się poza tą pętlą.
+     * @return liczba przetrzymanych wypożyczeń
+     */
+    private int accrue(long[] dueDays, int loans, long today, long[] fines) {
+        long threshold = today - policy.graceDays();
+        long rate = policy.dailyRate();
+        long cap = policy.maxPerLoan();
+        int overdue = 0;
+        for (int i = 0; i < loans; i++) {
+            long days = Math.max(0, threshold - dueDays[i]);
+            fines[i] = Math.min(days * rate, cap);
+            overdue += today > dueDays[i] ? 1 : 0;
+        }
+        return overdue;
+    }
+
+    /**
+     * Podsumowanie przebiegu naliczania.
+     * @param loansScanned liczba aktywnych wypożyczeń
+     * @param overdueLoans liczba wypożyczeń po terminie
+     * @param totalAccrued suma kwot narastających w groszach
+     * @param elapsedNanos czas przebiegu
+     */
+    public record AccrualSummary(int loansScanned, int overdueLoans, long totalAccrued, long elapsedNanos) {
+        @Override
+        public String toString() {
+            return String.format("Wypożyczenia: %d, po terminie: %d, narosłe kary: %s (%.1f ms)",
+                loansScanned, overdueLoans, FineLedger.formatAmount(totalAccrued), elapsedNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package library.fines;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Wpis w koncie kar czytelnika: naliczenie za zwrot po terminie lub wpłata.
+ * @param date data operacji
+ * @param itemId identyfikator przedmiotu (null dla wpłat)
+ * @param amount kwota w groszach; dodatnia dla kar, ujemna dla wpłat
+ * @param description opis operacji
+ */
+public record FineEntry(LocalDate date, String itemId, long amount, String description) implements Serializable {
+}
@@ -0,0 +1,122 @@
+package library.fines;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Konta kar czytelników.
+ * <p>
+ * Saldo czytelnika to suma kar naliczonych przy zwrotach po terminie pomniejszona o wpłaty.
+ * Osobno przechowywana jest kwota narastająca za wypożyczenia, które są już przetrzymane,
+ * ale jeszcze nie zostały zwrócone; ustawia ją nocny przebieg {@link FineAccrualEngine}
+ * i zastępuje w całości, więc ponowne uruchomienie tego samego dnia niczego nie dubluje.
+ */
+public class FineLedger implements Serializable {
+    private static final long serialVersionUID = 8925841878169613233L;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> accruing = Map.of();
+    private volatile LocalDate accruedOn;
+
+    /**
+     * Nalicza karę za zwrot po terminie.
+     * @param userId identyfikator czytelnika
+     * @param itemId identyfikator zwróconego przedmiotu
+     * @param amount kwota w groszach (zero jest pomijane)
+     * @param date data zwrotu
+     */
+    public void charge(String userId, String itemId, long amount, LocalDate date) {
+        if (amount > 0) {
+            account(userId).add(new FineEntry(date, itemId, amount,
+                "Kara za przetrzymanie: " + formatAmount(amount)));
+        }
+    }
+
+    /**
+     * Rejestruje wpłatę czytelnika.
+     * @param userId identyfikator czytelnika
+     * @param amount kwota w groszach
+     * @param date data wpłaty
+     * @throws IllegalArgumentException gdy kwota nie jest dodatnia
+     */
+    public void pay(String userId, long amount, LocalDate date) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Kwota wpłaty musi być dodatnia");
+        }
+        account(userId).add(new FineEntry(date, null, -amount, "Wpłata: " + formatAmount(amount)));
+    }
+
+    /**
+     * Pobiera saldo kar do zapłaty za zwrócone przedmioty.
+     * @param userId identyfikator czytelnika
+     * @return saldo w groszach
+     */
+    public long getBalance(String userId) {
+        Account account = accounts.get(userId);
+        return account == null ? 0 : account.balance();
+    }
+
+    /**
+     * Pobiera kwotę narastającą za przetrzymane, jeszcze niezwrócone przedmioty
+     * według ostatniego przebiegu naliczania.
+     * @param userId identyfikator czytelnika
+     * @return kwota w groszach
+     */
+    public long getAccruing(String userId) {
+        return accruing.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Pobiera historię operacji na koncie czytelnika.
+     * @param userId identyfikator czytelnika
+     * @return kopia listy wpisów w kolejności dodania
+     */
+    public List<FineEntry> getEntries(String userId) {
+        Account account = accounts.get(userId);
+        return account == null ? List.of() : account.entries();
+    }
+
+    public LocalDate getAccruedOn() {
+        return accruedOn;
+    }
+
+    void replaceAccruing(Map<String, Long> amounts, LocalDate date) {
+        accruing = Map.copyOf(amounts);
+        accruedOn = date;
+    }
+
+    private Account account(String userId) {
+        return accounts.computeIfAbsent(userId, id -> new Account());
+    }
+
+    /**
+     * Formatuje kwotę w groszach jako złote.
+     * @param amount kwota w groszach
+     * @return tekst w postaci „12,50 zł”
+     */
+    public static String formatAmount(long amount) {
+        return String.format("%s%d,%02d zł", amount < 0 ? "-" : "", Math.abs(amount) / 100, Math.abs(amount) % 100);
+    }
+
+    private static final class Account implements Serializable {
+        private static final long serialVersionUID = -3797226178842436469L;
+        private final List<FineEntry> entries = new ArrayList<>();
+        private long balance;
+
+        synchronized void add(FineEntry entry) {
+            entries.add(entry);
+            balance += entry.amount();
+        }
+
+        synchronized long balance() {
+            return balance;
+        }
+
+        synchronized List<FineEntry> entries() {
+            return new ArrayList<>(entries);
+        }
+    }
+}
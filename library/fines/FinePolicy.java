@@ -0,0 +1,29 @@
+package library.fines;
+
+import java.io.Serializable;
+
+/**
+ * Zasady naliczania kar za przetrzymanie. Kwoty wyrażone są w groszach.
+ * @param dailyRate kara za każdy dzień opóźnienia po okresie karencji
+ * @param graceDays liczba dni opóźnienia bez kary
+ * @param maxPerLoan maksymalna kara za jedno wypożyczenie
+ */
+public record FinePolicy(long dailyRate, int graceDays, long maxPerLoan) implements Serializable {
+    public static final FinePolicy DEFAULT = new FinePolicy(50, 0, 5_000);
+
+    public FinePolicy {
+        if (dailyRate < 0 || graceDays < 0 || maxPerLoan < 0) {
+            throw new IllegalArgumentException("Parametry kary nie mogą być ujemne");
+        }
+    }
+
+    /**
+     * Oblicza karę za podaną liczbę dni opóźnienia.
+     * @param daysOverdue liczba dni po terminie zwrotu
+     * @return kara w groszach
+     */
+    public long fineFor(long daysOverdue) {
+        long chargeable = Math.max(0, daysOverdue - graceDays);
+        return Math.min(chargeable * dailyRate, maxPerLoan);
+    }
+}
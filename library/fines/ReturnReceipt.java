@@ -0,0 +1,10 @@
+package library.fines;
+
+/**
+ * Potwierdzenie zwrotu przedmiotu w bibliotece.
+ * @param userId identyfikator czytelnika, który miał przedmiot, lub null dla zwrotu bez wskazania czytelnika
+ * @param daysOverdue liczba dni opóźnienia (0 gdy zwrot w terminie)
+ * @param fine kara zapisana w koncie czytelnika w groszach (0 gdy nie naliczono kary)
+ */
+public record ReturnReceipt(String userId, long daysOverdue, long fine) {
+}
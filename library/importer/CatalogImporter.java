@@ -0,0 +1,206 @@
+package library.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import library.Library;
+import library.exceptions.InvalidItemException;
+import library.models.Item;
+
+/**
+ * Masowy import katalogu z plików CSV lub JSON Lines.
+ * <p>
+ * Plik jest czytany sekwencyjnie w paczkach linii, które są parsowane, walidowane
+ * i zamieniane na przedmioty równolegle. Wyniki paczek są scalane w kolejności z pliku:
+ * deduplikacja (również względem przedmiotów już obecnych w bibliotece) i dodanie
+ * do biblioteki odbywa się w jednym wątku, paczkami przez {@link Library#addItems}.
+ * Liczba paczek w locie jest ograniczona, więc zużycie pamięci nie zależy od rozmiaru pliku.
+ */
+public class CatalogImporter {
+    private static final Logger LOGGER = Logger.getLogger(CatalogImporter.class.getName());
+    private static final int DEFAULT_BATCH_SIZE = 8_192;
+
+    private final Library library;
+    private final int parallelism;
+    private final int batchSize;
+
+    /**
+     * Tworzy importer używający wszystkich dostępnych rdzeni.
+     * @param library biblioteka, do której trafią przedmioty
+     */
+    public CatalogImporter(Library library) {
+        this(library, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Tworzy importer o zadanej równoległości.
+     * @param library biblioteka, do której trafią przedmioty
+     * @param parallelism liczba wątków parsujących
+     * @param batchSize liczba linii w jednej paczce
+     * @throws IllegalArgumentException gdy parametry nie są dodatnie
+     */
+    public CatalogImporter(Library library, int parallelism, int batchSize) {
+        if (parallelism <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Równoległość i rozmiar paczki muszą być dodatnie");
+        }
+        this.library = library;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importuje plik, dobierając format po rozszerzeniu (.csv, .jsonl, .ndjson).
+     * @param path ścieżka do pliku
+     * @return raport z importu
+     * @throws IOException gdy odczyt pliku się nie powiedzie
+     */
+    public ImportReport importFile(Path path) throws IOException {
+        RecordParser parser = RecordParser.forFile(path);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            ImportReport report = importFrom(reader, parser);
+            LOGGER.info(() -> "Import " + path + ": " + report);
+            return report;
+        }
+    }
+
+    private ImportReport importFrom(BufferedReader reader, RecordParser parser) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> seenKeys = new HashSet<>();
+        for (Item item : library.getAllItems()) {
+            String key = ImportRecord.dedupKeyOf(item);
+            if (key != null) {
+                seenKeys.add(key);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Deque<Future<ParsedBatch>> inFlight = new ArrayDeque<>();
+        int maxInFlight = parallelism * 2;
+        try {
+            List<String> lines = new ArrayList<>(batchSize);
+            long firstLineNumber = 1;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && parser.isHeader(line)) {
+                    firstLineNumber = 2;
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    inFlight.add(submit(executor, parser, lines, firstLineNumber));
+                    lines = new ArrayList<>(batchSize);
+                    firstLineNumber = lineNumber + 1;
+                    if (inFlight.size() >= maxInFlight) {
+                        merge(inFlight.poll(), seenKeys, report);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(executor, parser, lines, firstLineNumber));
+            }
+            while (!inFlight.isEmpty()) {
+                merge(inFlight.poll(), seenKeys, report);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private static Future<ParsedBatch> submit(ExecutorService executor, RecordParser parser,
+                                              List<String> lines, long firstLineNumber) {
+        return executor.submit(() -> ParsedBatch.parse(parser, lines, firstLineNumber));
+    }
+
+    private void merge(Future<ParsedBatch> future, Set<String> seenKeys, ImportReport report)
+            throws IOException {
+        ParsedBatch batch;
+        try {
+            batch = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import przerwany", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Błąd przetwarzania paczki", e.getCause());
+        }
+
+        List<Item> accepted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.rejections[i] != null) {
+                report.recordRejected(batch.rejections[i]);
+            } else if (batch.items[i] == null) {
+                continue;
+            } else if (seenKeys.add(batch.keys[i])) {
+                accepted.add(batch.items[i]);
+            } else {
+                report.recordDuplicate(new RejectedRow(batch.firstLineNumber + i,
+                    "Duplikat istniejącej pozycji", batch.lines.get(i)));
+            }
+        }
+        library.addItems(accepted);
+        report.recordAccepted(accepted.size());
+    }
+
+    /**
+     * Wynik przetworzenia jednej paczki linii. Dla każdej niepustej linii wypełniony jest
+     * albo przedmiot z kluczem deduplikacji, albo odrzucenie.
+     */
+    private static final class ParsedBatch {
+        final List<String> lines;
+        final long firstLineNumber;
+        final Item[] items;
+        final String[] keys;
+        final RejectedRow[] rejections;
+
+        private ParsedBatch(List<String> lines, long firstLineNumber) {
+            this.lines = lines;
+            this.firstLineNumber = firstLineNumber;
+            this.items = new Item[lines.size()];
+            this.keys = new String[lines.size()];
+            this.rejections = new RejectedRow[lines.size()];
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        static ParsedBatch parse(RecordParser parser, List<String> lines, long firstLineNumber) {
+            ParsedBatch batch = new ParsedBatch(lines, firstLineNumber);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ImportRecord record = parser.parse(line);
+                    record.validate();
+                    batch.keys[i] = record.dedupKey();
+                    batch.items[i] = record.toItem();
+                } catch (InvalidItemException e) {
+                    batch.rejections[i] = new RejectedRow(firstLineNumber + i, e.getMessage(), line);
+                } catch (RuntimeException e) {
+                    String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    batch.rejections[i] = new RejectedRow(firstLineNumber + i, reason, line);
+                }
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package library.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+import library.exceptions.InvalidItemException;
+
+/**
+ * Parser plików CSV o kolumnach:
+ * {@code type,title,author,genre,year,issueNumber,publisher}.
+ * Pola mogą być ujęte w cudzysłowy, a cudzysłów wewnątrz pola zapisuje się jako {@code ""}.
+ */
+class CsvRecordParser implements RecordParser {
+    private static final int COLUMNS = 7;
+
+    @Override
+    public boolean isHeader(String line) {
+        return line.regionMatches(true, 0, "type,", 0, 5);
+    }
+
+    @Override
+    public ImportRecord parse(String line) throws InvalidItemException {
+        List<String> fields = split(line);
+        if (fields.size() != COLUMNS) {
+            throw new InvalidItemException("Oczekiwano " + COLUMNS + " kolumn, znaleziono " + fields.size());
+        }
+        return new ImportRecord(
+            RecordParser.parseType(fields.get(0)),
+            emptyToNull(fields.get(1)),
+            emptyToNull(fields.get(2)),
+            emptyToNull(fields.get(3)),
+            RecordParser.parseInt(fields.get(4), "year"),
+            RecordParser.parseInt(fields.get(5), "issueNumber"),
+            emptyToNull(fields.get(6)));
+    }
+
+    private static List<String> split(String line) throws InvalidItemException {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidItemException("Niezamknięty cudzysłów");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,98 @@
+package library.importer;
+
+import java.util.Locale;
+import library.exceptions.InvalidItemException;
+import library.models.Book;
+import library.models.Item;
+import library.models.Magazine;
+import library.time.LibraryClock;
+
+/**
+ * Pojedynczy rekord katalogu odczytany z pliku importu, przed walidacją.
+ * Pola nieużywane przez dany typ przedmiotu pozostają puste.
+ */
+record ImportRecord(String type, String title, String author, String genre,
+                    Integer year, Integer issueNumber, String publisher) {
+
+    static final String BOOK = "BOOK";
+    static final String MAGAZINE = "MAGAZINE";
+
+    /**
+     * Sprawdza poprawność rekordu.
+     * @throws InvalidItemException gdy brakuje wymaganego pola lub wartość jest niepoprawna
+     */
+    void validate() throws InvalidItemException {
+        if (type == null) {
+            throw new InvalidItemException("Brak typu przedmiotu");
+        }
+        requireText(title, "title");
+        if (year == null) {
+            throw new InvalidItemException("Brak roku wydania");
+        }
+        if (year < 0 || year > LibraryClock.today().getYear() + 1) {
+            throw new InvalidItemException("Niepoprawny rok wydania: " + year);
+        }
+        switch (type) {
+            case BOOK -> {
+                requireText(author, "author");
+                requireText(genre, "genre");
+            }
+            case MAGAZINE -> {
+                requireText(publisher, "publisher");
+                if (issueNumber == null || issueNumber <= 0) {
+                    throw new InvalidItemException("Niepoprawny numer wydania: " + issueNumber);
+                }
+            }
+            default -> throw new InvalidItemException("Nieznany typ przedmiotu: " + type);
+        }
+    }
+
+    /**
+     * Klucz deduplikacji: tytuł + autor + rok dla książek, wydawca + numer dla czasopism.
+     * @return klucz niezależny od wielkości liter i białych znaków na brzegach
+     */
+    String dedupKey() {
+        if (BOOK.equals(type)) {
+            return "B|" + normalize(title) + '|' + normalize(author) + '|' + year;
+        }
+        return "M|" + normalize(publisher) + '|' + issueNumber;
+    }
+
+    /**
+     * Tworzy przedmiot na podstawie zwalidowanego rekordu.
+     * @return nowa książka lub czasopismo
+     */
+    Item toItem() {
+        if (BOOK.equals(type)) {
+            return new Book(title.strip(), author.strip(), genre.strip(), year);
+        }
+        return new Magazine(title.strip(), year, issueNumber, publisher.strip());
+    }
+
+    /**
+     * Wylicza klucz deduplikacji dla przedmiotu już obecnego w bibliotece.
+     * @param item przedmiot z katalogu
+     * @return klucz zgodny z {@link #dedupKey()} lub null dla innych typów
+     */
+    static String dedupKeyOf(Item item) {
+        if (item instanceof Book book) {
+            return new ImportRecord(BOOK, book.getTitle(), book.getAuthor(), book.getGenre(),
+                book.getYearOfPublication(), null, null).dedupKey();
+        } else if (item instanceof Magazine magazine) {
+            return new ImportRecord(MAGAZINE, magazine.getTitle(), null, null,
+                magazine.getYearOfPublication(), magazine.getIssueNumber(),
+                magazine.getPublisher()).dedupKey();
+        }
+        return null;
+    }
+
+    private static void requireText(String value, String field) throws InvalidItemException {
+        if (value == null || value.isBlank()) {
+            throw new InvalidItemException("Brak wymaganego pola: " + field);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,83 @@
+package library.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Podsumowanie importu katalogu: liczba przyjętych, zduplikowanych i odrzuconych rekordów.
+ * Przechowuje szczegóły co najwyżej {@value #MAX_REPORTED_REJECTIONS} odrzuceń,
+ * aby raport z bardzo dużego, błędnego pliku nie zajmował nieograniczonej pamięci.
+ */
+public class ImportReport {
+    public static final int MAX_REPORTED_REJECTIONS = 10_000;
+
+    private long accepted;
+    private long duplicates;
+    private long rejected;
+    private long elapsedNanos;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    void recordAccepted(int count) {
+        accepted += count;
+    }
+
+    void recordDuplicate(RejectedRow row) {
+        duplicates++;
+        addRow(row);
+    }
+
+    void recordRejected(RejectedRow row) {
+        rejected++;
+        addRow(row);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    private void addRow(RejectedRow row) {
+        if (rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+            rejectedRows.add(row);
+        }
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Pobiera szczegóły odrzuconych wierszy (w tym duplikatów) w kolejności z pliku.
+     * @return niemodyfikowalna lista odrzuceń, ograniczona do {@value #MAX_REPORTED_REJECTIONS}
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return Collections.unmodifiableList(rejectedRows);
+    }
+
+    /**
+     * Oblicza przepustowość importu.
+     * @return liczba przetworzonych rekordów na sekundę
+     */
+    public double recordsPerSecond() {
+        long total = accepted + duplicates + rejected;
+        return elapsedNanos == 0 ? 0 : total * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Zaimportowano: %d, duplikaty: %d, odrzucone: %d (%.0f rekordów/s)",
+            accepted, duplicates, rejected, recordsPerSecond());
+    }
+}
@@ -0,0 +1,162 @@
+package library.importer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import library.exceptions.InvalidItemException;
+
+/**
+ * Parser plików JSON Lines: jeden płaski obiekt JSON na linię, np.
+ * {@code {"type":"BOOK","title":"Lalka","author":"Bolesław Prus","genre":"powieść","year":1890}}.
+ * Obsługuje wartości tekstowe, liczbowe i null; zagnieżdżone obiekty nie są dozwolone.
+ */
+class JsonLinesRecordParser implements RecordParser {
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    @Override
+    public boolean isHeader(String line) {
+        return false;
+    }
+
+    @Override
+    public ImportRecord parse(String line) throws InvalidItemException {
+        Map<String, String> fields = new Reader(line).readObject();
+        return new ImportRecord(
+            RecordParser.parseType(fields.get("type")),
+            fields.get("title"),
+            fields.get("author"),
+            fields.get("genre"),
+            RecordParser.parseInt(fields.get("year"), "year"),
+            RecordParser.parseInt(fields.get("issueNumber"), "issueNumber"),
+            fields.get("publisher"));
+    }
+
+    /**
+     * Minimalny czytnik płaskiego obiektu JSON.
+     */
+    private static final class Reader {
+        private final String text;
+        private int pos;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> readObject() throws InvalidItemException {
+            Map<String, String> fields = new HashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String key = readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    fields.put(key, readValue());
+                    skipWhitespace();
+                    char c = next();
+                    if (c == '}') {
+                        break;
+                    } else if (c != ',') {
+                        throw error("Oczekiwano ',' lub '}'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("Nadmiarowe znaki po obiekcie");
+            }
+            return fields;
+        }
+
+        private String readValue() throws InvalidItemException {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            int start = pos;
+            while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            return switch (literal) {
+                case "null" -> null;
+                case "true", "false" -> literal;
+                default -> {
+                    if (literal.isEmpty() || !NUMBER.matcher(literal).matches()) {
+                        throw error("Niepoprawna wartość: " + literal);
+                    }
+                    yield literal;
+                }
+            };
+        }
+
+        private String readString() throws InvalidItemException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                } else if (c == '\\') {
+                    char escaped = next();
+                    switch (escaped) {
+                        case '"', '\\', '/' -> sb.append(escaped);
+                        case 'b' -> sb.append('\b');
+                        case 'f' -> sb.append('\f');
+                        case 'n' -> sb.append('\n');
+                        case 'r' -> sb.append('\r');
+                        case 't' -> sb.append('\t');
+                        case 'u' -> {
+                            if (pos + 4 > text.length()) {
+                                throw error("Niepełna sekwencja \\u");
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw error("Niepoprawna sekwencja \\u");
+                            }
+                            pos += 4;
+                        }
+                        default -> throw error("Niepoprawna sekwencja ucieczki: \\" + escaped);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws InvalidItemException {
+            if (pos >= text.length()) {
+                throw error("Nieoczekiwany koniec linii");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() throws InvalidItemException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) throws InvalidItemException {
+            if (next() != expected) {
+                throw error("Oczekiwano '" + expected + "'");
+            }
+        }
+
+        private InvalidItemException error(String message) {
+            return new InvalidItemException(message + " (pozycja " + pos + ")");
+        }
+    }
+}
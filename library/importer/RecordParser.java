@@ -0,0 +1,72 @@
+package library.importer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import library.exceptions.InvalidItemException;
+
+/**
+ * Parser pojedynczej linii pliku importu katalogu.
+ * Implementacje muszą być bezstanowe, bo są wywoływane równolegle.
+ */
+interface RecordParser {
+    /**
+     * Sprawdza, czy linia jest nagłówkiem, który należy pominąć.
+     * @param line pierwsza linia pliku
+     * @return true jeśli linia jest nagłówkiem
+     */
+    boolean isHeader(String line);
+
+    /**
+     * Parsuje linię do rekordu.
+     * @param line linia pliku
+     * @return odczytany rekord (jeszcze nie zwalidowany)
+     * @throws InvalidItemException gdy linia ma niepoprawny format
+     */
+    ImportRecord parse(String line) throws InvalidItemException;
+
+    /**
+     * Dobiera parser na podstawie rozszerzenia pliku (.csv, .jsonl, .ndjson).
+     * @param path ścieżka do pliku
+     * @return parser odpowiedni dla formatu
+     * @throws IllegalArgumentException gdy format nie jest obsługiwany
+     */
+    static RecordParser forFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvRecordParser();
+        } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesRecordParser();
+        }
+        throw new IllegalArgumentException("Nieobsługiwany format pliku: " + name);
+    }
+
+    /**
+     * Zamienia tekst na liczbę całkowitą.
+     * @param value tekst lub null
+     * @param field nazwa pola do komunikatu błędu
+     * @return liczba lub null gdy pole jest puste
+     * @throws InvalidItemException gdy tekst nie jest liczbą
+     */
+    static Integer parseInt(String value, String field) throws InvalidItemException {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.strip());
+        } catch (NumberFormatException e) {
+            throw new InvalidItemException("Pole " + field + " nie jest liczbą: " + value);
+        }
+    }
+
+    /**
+     * Normalizuje nazwę typu przedmiotu.
+     * @param value tekst z pliku
+     * @return BOOK, MAGAZINE, wartość oryginalna dla nieznanych typów lub null
+     */
+    static String parseType(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.strip().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package library.importer;
+
+/**
+ * Wiersz pliku importu odrzucony podczas parsowania, walidacji lub deduplikacji.
+ * @param lineNumber numer linii w pliku (liczony od 1)
+ * @param reason powód odrzucenia
+ * @param content treść odrzuconej linii
+ */
+public record RejectedRow(long lineNumber, String reason, String content) {
+    @Override
+    public String toString() {
+        return String.format("Linia %d: %s [%s]", lineNumber, reason, content);
+    }
+}
@@ -0,0 +1,36 @@
+package library.interfaces;
+
+import library.models.Item;
+import library.models.User;
+
+/**
+ * Odbiorca powiadomień o wypożyczeniach, przedłużeniach i zwrotach rejestrowanych przez czytelników.
+ * Metody wywoływane są wewnątrz transakcji zmiany, w kolejności zatwierdzania, więc powinny
+ * działać krótko.
+ */
+@FunctionalInterface
+public interface LoanListener {
+    /**
+     * Wywoływane po zapisaniu wypożyczenia w historii czytelnika.
+     * @param user czytelnik wypożyczający przedmiot
+     * @param item wypożyczony przedmiot
+     */
+    void onLoan(User user, Item item);
+
+    /**
+     * Wywoływane po zwrocie przedmiotu przez czytelnika.
+     * @param user czytelnik zwracający przedmiot
+     * @param item zwrócony przedmiot
+     * @param daysOverdue liczba dni opóźnienia (0 gdy zwrot w terminie)
+     */
+    default void onReturn(User user, Item item, long daysOverdue) {
+    }
+
+    /**
+     * Wywoływane po przedłużeniu terminu zwrotu przez czytelnika.
+     * @param user czytelnik
+     * @param item przedmiot z nowym terminem zwrotu
+     */
+    default void onExtend(User user, Item item) {
+    }
+}
@@ -1,13 +1,16 @@
 package library.interfaces;
 
 import java.time.LocalDate;
-import library.exceptions.OverdueException;
+import library.time.LibraryClock;
 
 /**
  * Interfejs definiujący zachowania dla przedmiotów możliwych do wypożyczenia.
  * Zawiera metody do zarządzania statusem i czasem wypożyczenia.
  */
 public interface Loanable {
+    /** Wartość {@link #getDueEpochDay()} dla przedmiotu, który nie jest wypożyczony. */
+    long NOT_BORROWED = Long.MIN_VALUE;
+
     /**
      * Wypożycza przedmiot, zmieniając jego status na niedostępny.
      * @throws IllegalStateException gdy przedmiot jest już wypożyczony
@@ -15,10 +18,12 @@ public interface Loanable {
     void borrow();
 
     /**
-     * Zwraca przedmiot do biblioteki.
-     * @throws OverdueException gdy przedmiot jest przetrzymany
+     * Zwraca przedmiot do biblioteki. Zwrot po terminie jest przyjmowany,
+     * a opóźnienie służy do naliczenia kary.
+     * @return liczba dni opóźnienia (0 gdy zwrot w terminie)
+     * @throws IllegalStateException gdy przedmiot nie jest wypożyczony
      */
-    void returnItem() throws OverdueException;
+    long returnItem();
 
     /**
      * Sprawdza dostępność przedmiotu.
@@ -38,6 +43,15 @@ public interface Loanable {
      */
     LocalDate getDueDate();
 
+    /**
+     * Pobiera termin zwrotu jako numer dnia epoki.
+     * @return dzień epoki terminu zwrotu lub {@link #NOT_BORROWED}
+     */
+    default long getDueEpochDay() {
+        LocalDate dueDate = getDueDate();
+        return dueDate == null ? NOT_BORROWED : dueDate.toEpochDay();
+    }
+
     /**
      * Przedłuża termin wypożyczenia.
      * @param days liczba dni o które przedłużamy wypożyczenie
@@ -52,7 +66,7 @@ public interface Loanable {
      */
     default boolean isOverdue() {
         LocalDate dueDate = getDueDate();
-        return dueDate != null && LocalDate.now().isAfter(dueDate);
+        return dueDate != null && LibraryClock.today().isAfter(dueDate);
     }
 
     /**
@@ -64,6 +78,6 @@ public interface Loanable {
         if (dueDate == null) {
             return 0;
         }
-        return LocalDate.now().until(dueDate).getDays();
+        return dueDate.toEpochDay() - LibraryClock.today().toEpochDay();
     }
 }
\ No newline at end of file
@@ -1,89 +1,162 @@
 package library.models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.time.LocalDate;
-import library.exceptions.OverdueException;
 import library.interfaces.Loanable;
+import library.mvcc.Versioned;
+import library.mvcc.Versions;
+import library.time.LibraryClock;
 
+/**
+ * Książka. Autor i gatunek przechowywane są jako kody słowników {@link MetadataDictionary}.
+ */
 public class Book extends Item implements Loanable {
-    private String author;
-    private String genre;
-    private boolean available;
-    private LocalDate borrowDate;
-    private LocalDate dueDate;
+    private transient int author;
+    private transient int genre;
+    private static final long serialVersionUID = -2732808750947968677L;
+    /** Pola zapisu zgodne z pierwotnym formatem (stan wypożyczenia jako flaga i daty). */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("author", String.class),
+        new ObjectStreamField("genre", String.class),
+        new ObjectStreamField("available", boolean.class),
+        new ObjectStreamField("borrowDate", LocalDate.class),
+        new ObjectStreamField("dueDate", LocalDate.class)
+    };
+
+    private Versioned<LoanState> loan = new Versioned<>(LoanState.AVAILABLE);
 
     public Book(String title, String author, String genre, int yearOfPublication) {
         super(title, yearOfPublication);
-        this.author = author;
-        this.genre = genre;
-        this.available = true;
+        this.author = MetadataDictionary.AUTHORS.encode(author);
+        this.genre = MetadataDictionary.GENRES.encode(genre);
+    }
+
+    /**
+     * Odtwarza książkę z zapisanym wcześniej identyfikatorem.
+     */
+    public Book(String id, String title, String author, String genre, int yearOfPublication) {
+        super(id, title, yearOfPublication);
+        this.author = MetadataDictionary.AUTHORS.encode(author);
+        this.genre = MetadataDictionary.GENRES.encode(genre);
     }
 
     @Override
     public void displayDetails() {
         System.out.printf("Książka: %s, Autor: %s, Gatunek: %s, Rok: %d%n", 
-            getTitle(), author, genre, getYearOfPublication());
+            getTitle(), getAuthor(), getGenre(), getYearOfPublication());
     }
 
     @Override
     public void borrow() {
-        if (!available) {
-            throw new IllegalStateException("Książka jest już wypożyczona");
-        }
-        available = false;
-        borrowDate = LocalDate.now();
-        dueDate = borrowDate.plusDays(30); // Domyślny okres wypożyczenia: 30 dni
+        Versions.commit(() -> {
+            if (!loan.get().isAvailable()) {
+                throw new IllegalStateException("Książka jest już wypożyczona");
+            }
+            LocalDate borrowDate = LibraryClock.today();
+            loan.set(new LoanState(borrowDate, borrowDate.plusDays(30))); // Domyślny okres wypożyczenia: 30 dni
+        });
     }
 
     @Override
-    public void returnItem() throws OverdueException {
-        if (isOverdue()) {
-            throw new OverdueException("Książka jest przetrzymana o " + 
-                Math.abs(daysToReturn()) + " dni");
-        }
-        available = true;
-        borrowDate = null;
-        dueDate = null;
+    public long returnItem() {
+        return Versions.commitAndGet(() -> {
+            LoanState state = loan.get();
+            if (state.isAvailable()) {
+                throw new IllegalStateException("Książka nie jest wypożyczona");
+            }
+            loan.set(LoanState.AVAILABLE);
+            return Math.max(0, LibraryClock.today().toEpochDay() - state.dueDay());
+        });
     }
 
     @Override
     public boolean isAvailable() {
-        return available;
+        return loan.get().isAvailable();
     }
 
     @Override
     public LocalDate getBorrowDate() {
-        return borrowDate;
+        return loan.get().borrowDate();
     }
 
     @Override
     public LocalDate getDueDate() {
-        return dueDate;
+        return loan.get().dueDate();
+    }
+
+    @Override
+    public long getDueEpochDay() {
+        LoanState state = loan.get();
+        return state.isAvailable() ? NOT_BORROWED : state.dueDay();
     }
 
     @Override
     public void extend(int days) {
-        if (available) {
-            throw new IllegalStateException("Nie można przedłużyć terminu - książka nie jest wypożyczona");
-        }
-        if (days < 0) {
-            throw new IllegalArgumentException("Liczba dni nie może być ujemna");
-        }
-        dueDate = dueDate.plusDays(days);
+        Versions.commit(() -> {
+            LoanState state = loan.get();
+            if (state.isAvailable()) {
+                throw new IllegalStateException("Nie można przedłużyć terminu - książka nie jest wypożyczona");
+            }
+            if (days < 0) {
+                throw new IllegalArgumentException("Liczba dni nie może być ujemna");
+            }
+            loan.set(new LoanState(state.borrowDay(), state.dueDay() + days));
+        });
     }
 
-    public boolean isOverdue() {
-        return LocalDate.now().isAfter(dueDate);
+    public String getAuthor() {
+        return MetadataDictionary.AUTHORS.decode(author);
     }
 
-    public long daysToReturn() {
-        return LocalDate.now().until(dueDate).getDays();
+    public String getGenre() {
+        return MetadataDictionary.GENRES.decode(genre);
     }
 
-    public String getAuthor() {
-        return author;
+    @Override
+    public long fingerprint() {
+        long hash = mix(super.fingerprint(), hashOf(getAuthor()));
+        hash = mix(hash, hashOf(getGenre()));
+        LoanState state = loan.get();
+        hash = mix(hash, state.borrowDay());
+        return mix(hash, state.dueDay());
     }
 
-    public String getGenre() {
-        return genre;
+    private static long hashOf(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    LoanState getLoanState() {
+        return loan.get();
+    }
+
+    /**
+     * Ustawia stan wypożyczenia odebrany z innej biblioteki (zob. {@link ItemRecord}).
+     */
+    void restoreLoanState(LoanState state) {
+        Versions.commit(() -> loan.set(state));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        LoanState state = loan.get();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("author", getAuthor());
+        fields.put("genre", getGenre());
+        fields.put("available", state.isAvailable());
+        fields.put("borrowDate", state.borrowDate());
+        fields.put("dueDate", state.dueDate());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        author = MetadataDictionary.AUTHORS.encode((String) fields.get("author", null));
+        genre = MetadataDictionary.GENRES.encode((String) fields.get("genre", null));
+        LocalDate borrowDate = (LocalDate) fields.get("borrowDate", null);
+        LocalDate dueDate = (LocalDate) fields.get("dueDate", null);
+        boolean available = fields.get("available", true) || borrowDate == null || dueDate == null;
+        loan = new Versioned<>(available ? LoanState.AVAILABLE : new LoanState(borrowDate, dueDate));
     }
-}
\ No newline at end of file
+}
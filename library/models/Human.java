@@ -1,8 +1,12 @@
 package library.models;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import library.time.LibraryClock;
 
 public abstract class Human implements Serializable {
+    private static final long serialVersionUID = 5465728368512291260L;
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
     private String firstName;
     private String lastName;
     private String id;
@@ -12,10 +16,23 @@ public abstract class Human implements Serializable {
         this.lastName = lastName;
         this.id = generateId();
     }
+
+    /**
+     * Odtwarza osobę z zapisanym wcześniej identyfikatorem (nowy jest generowany, gdy brak zapisanego).
+     */
+    protected Human(String firstName, String lastName, String id) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.id = id != null ? id : generateId();
+    }
     
+    /**
+     * Generuje identyfikator z prefiksu nazwiska, czasu zegara biblioteki i numeru kolejnego,
+     * dzięki czemu osoby tworzone w tej samej milisekundzie (np. w symulacji) mają różne identyfikatory.
+     */
     private String generateId() {
-        return String.format("%s-%d", lastName.substring(0, Math.min(3, lastName.length())), 
-            System.currentTimeMillis() % 10000);
+        return String.format("%s-%d-%d", lastName.substring(0, Math.min(3, lastName.length())), 
+            LibraryClock.millis() % 10000, ID_SEQUENCE.incrementAndGet());
     }
     
     public abstract void displayInfo();
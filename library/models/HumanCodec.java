@@ -0,0 +1,489 @@
+package library.models;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Binarny, wersjonowany format zapisu osób ({@link User}, {@link Librarian}).
+ * <p>
+ * Strumień zaczyna się od nagłówka (magiczna liczba i wersja schematu), po którym następują
+ * rekordy zapisywane i czytane pojedynczo: bajt typu, długość ciała i ciało. Ciało to ciąg
+ * pól oznaczonych numerem i rodzajem zapisu, więc czytnik pomija pola i typy rekordów,
+ * których nie zna, a brakujące pola przyjmują wartości domyślne. Pozycje wypożyczone
+ * i historia wypożyczeń zapisywane są wyłącznie jako identyfikatory przedmiotów
+ * (UUID w postaci 16 bajtów), a przy odczycie rozwiązywane przez podaną funkcję.
+ */
+public final class HumanCodec {
+    private static final Logger LOGGER = Logger.getLogger(HumanCodec.class.getName());
+
+    private static final int MAGIC = 0x4C_48_55_4D; // "LHUM"
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final int RECORD_END = 0;
+    private static final int RECORD_USER = 1;
+    private static final int RECORD_LIBRARIAN = 2;
+    /** Największa dopuszczalna długość rekordu; dłuższa oznacza uszkodzony plik. */
+    private static final int MAX_RECORD_LENGTH = 64 << 20;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_BYTES = 2;
+
+    private static final int FIELD_FIRST_NAME = 1;
+    private static final int FIELD_LAST_NAME = 2;
+    private static final int FIELD_ID = 3;
+    private static final int FIELD_BORROWED_ITEM = 10;
+    private static final int FIELD_HISTORY_ITEM = 11;
+    private static final int FIELD_SALARY = 20;
+    private static final int FIELD_POSITION = 21;
+    private static final int FIELD_TRANSACTION = 22;
+
+    private static final int REF_UUID = 0;
+    private static final int REF_TEXT = 1;
+
+    private HumanCodec() {
+    }
+
+    /**
+     * Tworzy koder zapisujący nagłówek do strumienia.
+     * @param out strumień docelowy (zalecany buforowany)
+     * @return koder gotowy do zapisu rekordów
+     * @throws IOException gdy zapis nagłówka się nie powiedzie
+     */
+    public static Encoder newEncoder(OutputStream out) throws IOException {
+        return new Encoder(out);
+    }
+
+    /**
+     * Tworzy dekoder czytający i sprawdzający nagłówek strumienia.
+     * @param in strumień źródłowy (zalecany buforowany)
+     * @param itemResolver funkcja zamieniająca identyfikator przedmiotu na przedmiot;
+     *                     identyfikatory, dla których zwróci null, są pomijane
+     * @return dekoder gotowy do odczytu rekordów
+     * @throws IOException gdy nagłówek jest niepoprawny lub wersja nieobsługiwana
+     */
+    public static Decoder newDecoder(InputStream in, Function<String, Item> itemResolver) throws IOException {
+        return new Decoder(in, itemResolver);
+    }
+
+    /**
+     * Zapisuje osoby do strumienia, rekord po rekordzie.
+     */
+    public static final class Encoder implements Flushable, Closeable {
+        private final DataOutputStream out;
+        private final Buffer body = new Buffer();
+        private final Buffer frame = new Buffer();
+        private boolean finished;
+
+        private Encoder(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeShort(SCHEMA_VERSION);
+        }
+
+        /**
+         * Zapisuje jedną osobę.
+         * @param human czytelnik lub bibliotekarz
+         * @throws IOException gdy zapis się nie powiedzie
+         * @throws IllegalArgumentException gdy typ osoby nie jest obsługiwany
+         */
+        public void write(Human human) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Strumień został już zamknięty");
+            }
+            body.reset();
+            body.writeString(FIELD_FIRST_NAME, human.getFirstName());
+            body.writeString(FIELD_LAST_NAME, human.getLastName());
+            body.writeString(FIELD_ID, human.getId());
+
+            int recordType;
+            if (human instanceof User user) {
+                recordType = RECORD_USER;
+                for (Item item : user.getBorrowedItems()) {
+                    body.writeItemRef(FIELD_BORROWED_ITEM, item.getId());
+                }
+                for (Item item : user.getBorrowingHistory()) {
+                    body.writeItemRef(FIELD_HISTORY_ITEM, item.getId());
+                }
+            } else if (human instanceof Librarian librarian) {
+                recordType = RECORD_LIBRARIAN;
+                body.writeFixed64(FIELD_SALARY, Double.doubleToLongBits(librarian.getSalary()));
+                body.writeString(FIELD_POSITION, librarian.getPosition());
+                for (String transaction : librarian.getProcessedTransactions()) {
+                    body.writeString(FIELD_TRANSACTION, transaction);
+                }
+            } else {
+                throw new IllegalArgumentException("Nieobsługiwany typ osoby: " + human.getClass().getName());
+            }
+
+            frame.reset();
+            frame.writeVarint(recordType);
+            frame.writeVarint(body.size);
+            out.write(frame.bytes, 0, frame.size);
+            out.write(body.bytes, 0, body.size);
+        }
+
+        /**
+         * Zapisuje znacznik końca strumienia. Wywoływane automatycznie przez {@link #close()}.
+         * @throws IOException gdy zapis się nie powiedzie
+         */
+        public void finish() throws IOException {
+            if (!finished) {
+                out.write(RECORD_END);
+                out.flush();
+                finished = true;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Odczytuje osoby ze strumienia, rekord po rekordzie.
+     */
+    public static final class Decoder implements Closeable {
+        private final DataInputStream in;
+        private final Function<String, Item> itemResolver;
+        private final int version;
+        private byte[] body = new byte[256];
+        private boolean finished;
+
+        private Decoder(InputStream in, Function<String, Item> itemResolver) throws IOException {
+            this.in = new DataInputStream(in);
+            this.itemResolver = itemResolver;
+            if (this.in.readInt() != MAGIC) {
+                throw new IOException("Niepoprawny format pliku użytkowników");
+            }
+            this.version = this.in.readUnsignedShort();
+            if (version > SCHEMA_VERSION) {
+                throw new IOException("Nieobsługiwana wersja schematu: " + version);
+            }
+        }
+
+        /**
+         * Pobiera wersję schematu, którą zapisano strumień.
+         * @return wersja schematu
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Odczytuje kolejną osobę.
+         * @return czytelnik lub bibliotekarz, albo null na końcu strumienia
+         * @throws IOException gdy dane są uszkodzone
+         */
+        public Human read() throws IOException {
+            while (!finished) {
+                int recordType = readVarint(in);
+                if (recordType == RECORD_END) {
+                    finished = true;
+                    return null;
+                }
+                int length = readVarint(in);
+                if (length < 0 || length > MAX_RECORD_LENGTH) {
+                    throw new IOException("Nieprawidłowa długość rekordu: " + length);
+                }
+                if (body.length < length) {
+                    body = new byte[Math.max(length, body.length * 2)];
+                }
+                in.readFully(body, 0, length);
+                switch (recordType) {
+                    case RECORD_USER -> {
+                        return decodeUser(new Cursor(body, length));
+                    }
+                    case RECORD_LIBRARIAN -> {
+                        return decodeLibrarian(new Cursor(body, length));
+                    }
+                    default -> LOGGER.fine(() -> "Pominięto nieznany typ rekordu: " + recordType);
+                }
+            }
+            return null;
+        }
+
+        private User decodeUser(Cursor cursor) throws IOException {
+            String firstName = "";
+            String lastName = "";
+            String id = null;
+            List<Item> borrowed = new ArrayList<>();
+            List<Item> history = new ArrayList<>();
+            while (cursor.hasMore()) {
+                int key = cursor.readVarint();
+                switch (key >>> 3) {
+                    case FIELD_FIRST_NAME -> firstName = cursor.readString(key);
+                    case FIELD_LAST_NAME -> lastName = cursor.readString(key);
+                    case FIELD_ID -> id = cursor.readString(key);
+                    case FIELD_BORROWED_ITEM -> resolve(cursor.readItemRef(key), borrowed);
+                    case FIELD_HISTORY_ITEM -> resolve(cursor.readItemRef(key), history);
+                    default -> cursor.skip(key);
+                }
+            }
+            return new User(firstName, lastName, id, borrowed, history);
+        }
+
+        private Librarian decodeLibrarian(Cursor cursor) throws IOException {
+            String firstName = "";
+            String lastName = "";
+            String id = null;
+            double salary = 0;
+            String position = "";
+            List<String> transactions = new ArrayList<>();
+            while (cursor.hasMore()) {
+                int key = cursor.readVarint();
+                switch (key >>> 3) {
+                    case FIELD_FIRST_NAME -> firstName = cursor.readString(key);
+                    case FIELD_LAST_NAME -> lastName = cursor.readString(key);
+                    case FIELD_ID -> id = cursor.readString(key);
+                    case FIELD_SALARY -> salary = Double.longBitsToDouble(cursor.readFixed64(key));
+                    case FIELD_POSITION -> position = cursor.readString(key);
+                    case FIELD_TRANSACTION -> transactions.add(cursor.readString(key));
+                    default -> cursor.skip(key);
+                }
+            }
+            return new Librarian(firstName, lastName, id, salary, position, transactions);
+        }
+
+        private void resolve(String itemId, List<Item> target) {
+            Item item = itemResolver.apply(itemId);
+            if (item == null) {
+                LOGGER.warning(() -> "Nie znaleziono przedmiotu o ID: " + itemId);
+            } else {
+                target.add(item);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Rozszerzalny bufor bajtów dla ciała rekordu.
+     */
+    private static final class Buffer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, size + extra)];
+                System.arraycopy(bytes, 0, grown, 0, size);
+                bytes = grown;
+            }
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(int field, String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(field << 3 | WIRE_BYTES);
+            writeVarint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void writeFixed64(int field, long value) {
+            writeVarint(field << 3 | WIRE_FIXED64);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeItemRef(int field, String itemId) {
+            UUID uuid = parseUuid(itemId);
+            if (uuid == null) {
+                byte[] utf8 = itemId.getBytes(StandardCharsets.UTF_8);
+                writeVarint(field << 3 | WIRE_BYTES);
+                writeVarint(utf8.length + 1);
+                ensure(utf8.length + 1);
+                bytes[size++] = REF_TEXT;
+                System.arraycopy(utf8, 0, bytes, size, utf8.length);
+                size += utf8.length;
+            } else {
+                writeVarint(field << 3 | WIRE_BYTES);
+                writeVarint(17);
+                ensure(17);
+                bytes[size++] = REF_UUID;
+                long msb = uuid.getMostSignificantBits();
+                long lsb = uuid.getLeastSignificantBits();
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    bytes[size++] = (byte) (msb >>> shift);
+                }
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    bytes[size++] = (byte) (lsb >>> shift);
+                }
+            }
+        }
+
+        private static UUID parseUuid(String value) {
+            if (value.length() != 36) {
+                return null;
+            }
+            try {
+                UUID uuid = UUID.fromString(value);
+                return uuid.toString().equals(value) ? uuid : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Kursor czytający pola z ciała rekordu.
+     */
+    private static final class Cursor {
+        private final byte[] bytes;
+        private final int limit;
+        private int pos;
+
+        Cursor(byte[] bytes, int limit) {
+            this.bytes = bytes;
+            this.limit = limit;
+        }
+
+        boolean hasMore() {
+            return pos < limit;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (pos >= limit) {
+                    throw new EOFException("Uszkodzony rekord");
+                }
+                byte b = bytes[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Zbyt długa liczba");
+        }
+
+        private int readLength(int key) throws IOException {
+            expectWire(key, WIRE_BYTES);
+            int length = readVarint();
+            if (length < 0 || length > limit - pos) {
+                throw new EOFException("Uszkodzony rekord");
+            }
+            return length;
+        }
+
+        String readString(int key) throws IOException {
+            int length = readLength(key);
+            String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        long readFixed64(int key) throws IOException {
+            expectWire(key, WIRE_FIXED64);
+            if (limit - pos < 8) {
+                throw new EOFException("Uszkodzony rekord");
+            }
+            return readLong();
+        }
+
+        String readItemRef(int key) throws IOException {
+            int length = readLength(key);
+            if (length == 0) {
+                throw new IOException("Pusta referencja przedmiotu");
+            }
+            int kind = bytes[pos];
+            String value;
+            if (kind == REF_UUID && length == 17) {
+                pos++;
+                long msb = readLong();
+                long lsb = readLong();
+                value = new UUID(msb, lsb).toString();
+            } else if (kind == REF_TEXT) {
+                value = new String(bytes, pos + 1, length - 1, StandardCharsets.UTF_8);
+                pos += length;
+            } else {
+                throw new IOException("Nieznany rodzaj referencji przedmiotu: " + kind);
+            }
+            return value;
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | (bytes[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        void skip(int key) throws IOException {
+            switch (key & 0x7) {
+                case WIRE_VARINT -> readVarint();
+                case WIRE_FIXED64 -> {
+                    if (limit - pos < 8) {
+                        throw new EOFException("Uszkodzony rekord");
+                    }
+                    pos += 8;
+                }
+                case WIRE_BYTES -> pos += readLength(key);
+                default -> throw new IOException("Nieznany rodzaj pola: " + (key & 0x7));
+            }
+        }
+
+        private static void expectWire(int key, int wireType) throws IOException {
+            if ((key & 0x7) != wireType) {
+                throw new IOException("Niezgodny rodzaj pola " + (key >>> 3));
+            }
+        }
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Zbyt długa liczba");
+    }
+}
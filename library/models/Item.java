@@ -1,30 +1,190 @@
 package library.models;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.UUID;
 
+/**
+ * Bazowa klasa przedmiotów w bibliotece.
+ * <p>
+ * Identyfikator UUID przechowywany jest jako dwie liczby, a tytuł jako bajty UTF-8; tekstowe
+ * postacie tworzone są dopiero przy odczycie. Identyfikatory spoza formatu UUID (np. z dawnych
+ * plików) są zachowywane w postaci tekstowej. Do wyszukiwania przechowywany jest też tytuł
+ * zapisany małymi literami (również jako bajty UTF-8), aby zapytanie nie dekodowało tytułów
+ * całego katalogu. Serializacja Javy zapisuje pola w pierwotnym
+ * formacie (tekstowy identyfikator i tytuł), zgodnym z wcześniej zapisanymi plikami.
+ */
 public abstract class Item implements Serializable {
-    private final String id;
-    private String title;
+    private static final long serialVersionUID = -4121868086999660221L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", String.class),
+        new ObjectStreamField("title", String.class),
+        new ObjectStreamField("yearOfPublication", int.class)
+    };
+
+    private long idHigh;
+    private long idLow;
+    private String externalId;
+    private byte[] title;
+    private byte[] searchKey;
     private int yearOfPublication;
 
     protected Item(String title, int yearOfPublication) {
-        this.id = UUID.randomUUID().toString();
-        this.title = title;
+        this(UUID.randomUUID(), null, title, yearOfPublication);
+    }
+
+    protected Item(String id, String title, int yearOfPublication) {
+        this(keyOf(id), isUuid(id) ? null : id, title, yearOfPublication);
+    }
+
+    private Item(UUID key, String externalId, String title, int yearOfPublication) {
+        this.idHigh = key.getMostSignificantBits();
+        this.idLow = key.getLeastSignificantBits();
+        this.externalId = externalId;
+        this.title = title.getBytes(StandardCharsets.UTF_8);
+        this.searchKey = searchKeyOf(title, this.title);
         this.yearOfPublication = yearOfPublication;
     }
 
     public String getId() {
-        return id;
+        return externalId != null ? externalId : new UUID(idHigh, idLow).toString();
+    }
+
+    /**
+     * Pobiera klucz przedmiotu używany w indeksach biblioteki.
+     * @return UUID identyfikatora (dla identyfikatorów spoza formatu UUID: UUID wyliczony z ich treści)
+     */
+    public UUID getKey() {
+        return new UUID(idHigh, idLow);
+    }
+
+    /**
+     * Wyznacza klucz przedmiotu o podanym identyfikatorze (zob. {@link #getKey()}).
+     * @param id identyfikator przedmiotu
+     * @return klucz przedmiotu
+     */
+    public static UUID keyOf(String id) {
+        return isUuid(id) ? UUID.fromString(id) : UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     public String getTitle() {
-        return title;
+        return new String(title, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sprawdza, czy tytuł zawiera frazę bez względu na wielkość liter, bez dekodowania tytułu.
+     * @param phrase fraza przygotowana przez {@link #searchKeyOf(String)}
+     * @return true jeśli tytuł zawiera frazę
+     */
+    public boolean titleContains(byte[] phrase) {
+        if (phrase.length == 0) {
+            return true;
+        }
+        byte[] key = searchKey;
+        int last = key.length - phrase.length;
+        byte first = phrase[0];
+        for (int start = 0; start <= last; start++) {
+            if (key[start] != first) {
+                continue;
+            }
+            int i = 1;
+            while (i < phrase.length && key[start + i] == phrase[i]) {
+                i++;
+            }
+            if (i == phrase.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zamienia tekst na postać porównywaną przez {@link #titleContains(byte[])}.
+     * @param text tekst zapytania
+     * @return tekst małymi literami jako bajty UTF-8
+     */
+    public static byte[] searchKeyOf(String text) {
+        return text.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] searchKeyOf(String title, byte[] encoded) {
+        String lower = title.toLowerCase(Locale.ROOT);
+        // Tytuł zapisany już małymi literami współdzieli tablicę z polem title.
+        return lower.equals(title) ? encoded : lower.getBytes(StandardCharsets.UTF_8);
     }
 
     public int getYearOfPublication() {
         return yearOfPublication;
     }
 
+    /**
+     * Oblicza 64-bitowy skrót stanu przedmiotu, używany do porównywania katalogów przy replikacji.
+     * Podklasy dołączają własne pola i stan wypożyczenia.
+     * @return skrót stanu przedmiotu
+     */
+    public long fingerprint() {
+        long hash = mix(getClass().getName().hashCode(), idHigh);
+        hash = mix(hash, idLow);
+        long titleHash = 0xcbf29ce484222325L;
+        for (byte b : title) {
+            titleHash = (titleHash ^ b) * 0x100000001b3L;
+        }
+        hash = mix(hash, titleHash);
+        return mix(hash, yearOfPublication);
+    }
+
+    /**
+     * Dołącza wartość do skrótu (mieszanie jak w finalizacji MurmurHash3).
+     */
+    protected static long mix(long hash, long value) {
+        long h = hash ^ (value * 0x9e3779b97f4a7c15L);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
     public abstract void displayDetails();
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", getId());
+        fields.put("title", getTitle());
+        fields.put("yearOfPublication", yearOfPublication);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        String id = (String) fields.get("id", null);
+        if (id == null) {
+            throw new InvalidObjectException("Brak identyfikatora przedmiotu");
+        }
+        UUID key = keyOf(id);
+        idHigh = key.getMostSignificantBits();
+        idLow = key.getLeastSignificantBits();
+        externalId = isUuid(id) ? null : id;
+        String storedTitle = (String) fields.get("title", null);
+        storedTitle = storedTitle == null ? "" : storedTitle;
+        title = storedTitle.getBytes(StandardCharsets.UTF_8);
+        searchKey = searchKeyOf(storedTitle, title);
+        yearOfPublication = fields.get("yearOfPublication", 0);
+    }
 }
\ No newline at end of file
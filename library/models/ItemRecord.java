@@ -0,0 +1,153 @@
+package library.models;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Pełny stan przedmiotu (razem ze stanem wypożyczenia) w postaci przenośnej między bibliotekami,
+ * używany przy replikacji katalogu.
+ * @param type typ przedmiotu
+ * @param id identyfikator przedmiotu
+ * @param title tytuł
+ * @param year rok wydania
+ * @param author autor (tylko książki)
+ * @param genre gatunek (tylko książki)
+ * @param issueNumber numer wydania (tylko czasopisma)
+ * @param publisher wydawca (tylko czasopisma)
+ * @param borrowDay dzień wypożyczenia (numer dnia epoki) lub {@link Integer#MIN_VALUE}, gdy przedmiot jest dostępny
+ * @param dueDay termin zwrotu (numer dnia epoki) lub {@link Integer#MIN_VALUE}, gdy przedmiot jest dostępny
+ */
+public record ItemRecord(Type type, String id, String title, int year, String author, String genre,
+                         int issueNumber, String publisher, int borrowDay, int dueDay) {
+
+    public enum Type {
+        BOOK, MAGAZINE
+    }
+
+    /**
+     * Odczytuje stan przedmiotu.
+     * @param item przedmiot (książka lub czasopismo)
+     * @return stan przedmiotu
+     * @throws IllegalArgumentException dla nieobsługiwanego typu przedmiotu
+     */
+    public static ItemRecord of(Item item) {
+        if (item instanceof Book book) {
+            LoanState state = book.getLoanState();
+            return new ItemRecord(Type.BOOK, book.getId(), book.getTitle(), book.getYearOfPublication(),
+                book.getAuthor(), book.getGenre(), 0, null, state.borrowDay(), state.dueDay());
+        }
+        if (item instanceof Magazine magazine) {
+            LoanState state = magazine.getLoanState();
+            return new ItemRecord(Type.MAGAZINE, magazine.getId(), magazine.getTitle(), magazine.getYearOfPublication(),
+                null, null, magazine.getIssueNumber(), magazine.getPublisher(), state.borrowDay(), state.dueDay());
+        }
+        throw new IllegalArgumentException("Nieobsługiwany typ przedmiotu: " + item.getClass().getSimpleName());
+    }
+
+    /**
+     * Tworzy nowy przedmiot o tym stanie. Wywołujący musi być w transakcji {@code Versions.commit},
+     * jeśli przedmiot jest wypożyczony.
+     * @return nowy przedmiot
+     */
+    public Item toItem() {
+        Item item = switch (type) {
+            case BOOK -> new Book(id, title, author, genre, year);
+            case MAGAZINE -> new Magazine(id, title, year, issueNumber, publisher);
+        };
+        applyLoanState(item);
+        return item;
+    }
+
+    /**
+     * Ustawia stan wypożyczenia istniejącego przedmiotu na zapisany w rekordzie.
+     * @param item przedmiot o tym samym identyfikatorze
+     * @return true jeśli stan wypożyczenia się zmienił
+     */
+    public boolean applyLoanState(Item item) {
+        LoanState state = loanState();
+        if (item instanceof Book book && !book.getLoanState().equals(state)) {
+            book.restoreLoanState(state);
+            return true;
+        }
+        if (item instanceof Magazine magazine && !magazine.getLoanState().equals(state)) {
+            magazine.restoreLoanState(state);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sprawdza, czy przedmiot ma już stan wypożyczenia zapisany w rekordzie.
+     * @param item przedmiot o tym samym identyfikatorze
+     * @return true jeśli {@link #applyLoanState(Item)} niczego by nie zmieniło
+     */
+    public boolean hasLoanStateOf(Item item) {
+        LoanState state = loanState();
+        if (item instanceof Book book) {
+            return book.getLoanState().equals(state);
+        }
+        if (item instanceof Magazine magazine) {
+            return magazine.getLoanState().equals(state);
+        }
+        return true;
+    }
+
+    private LoanState loanState() {
+        return borrowDay == LoanState.NO_DAY ? LoanState.AVAILABLE : new LoanState(borrowDay, dueDay);
+    }
+
+    /**
+     * Sprawdza, czy rekord opisuje wypożyczony przedmiot.
+     * @return true jeśli przedmiot jest wypożyczony
+     */
+    public boolean isBorrowed() {
+        return borrowDay != LoanState.NO_DAY;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeUTF(id);
+        out.writeUTF(title);
+        out.writeInt(year);
+        if (type == Type.BOOK) {
+            writeText(out, author);
+            writeText(out, genre);
+        } else {
+            out.writeInt(issueNumber);
+            writeText(out, publisher);
+        }
+        out.writeInt(borrowDay);
+        out.writeInt(dueDay);
+    }
+
+    public static ItemRecord readFrom(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new IOException("Nieznany typ przedmiotu: " + ordinal);
+        }
+        Type type = Type.values()[ordinal];
+        String id = in.readUTF();
+        String title = in.readUTF();
+        int year = in.readInt();
+        if (type == Type.BOOK) {
+            String author = readText(in);
+            String genre = readText(in);
+            return new ItemRecord(type, id, title, year, author, genre, 0, null, in.readInt(), in.readInt());
+        }
+        int issueNumber = in.readInt();
+        String publisher = readText(in);
+        return new ItemRecord(type, id, title, year, null, null, issueNumber, publisher, in.readInt(), in.readInt());
+    }
+
+    private static void writeText(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readText(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -3,12 +3,14 @@ package library.models;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
+import library.time.LibraryClock;
 
 /**
  * Klasa reprezentująca bibliotekarza w systemie bibliotecznym.
  * Rozszerza klasę Human i zawiera funkcjonalności związane z zarządzaniem wypożyczeniami.
  */
 public class Librarian extends Human {
+    private static final long serialVersionUID = 6331266916151692724L;
     private static final Logger LOGGER = Logger.getLogger(Librarian.class.getName());
     private double salary;
     private String position;
@@ -29,6 +31,17 @@ public class Librarian extends Human {
         this.processedTransactions = new ArrayList<>();
     }
 
+    /**
+     * Odtwarza bibliotekarza z zapisanym identyfikatorem i historią transakcji (używane przez {@link HumanCodec}).
+     */
+    Librarian(String firstName, String lastName, String id, double salary, String position,
+              List<String> processedTransactions) {
+        super(firstName, lastName, id);
+        this.salary = salary;
+        this.position = position;
+        this.processedTransactions = processedTransactions;
+    }
+
     /**
      * Przetwarza wypożyczenie przedmiotu przez użytkownika.
      * @param user Użytkownik wypożyczający przedmiot
@@ -51,7 +64,7 @@ public class Librarian extends Human {
         user.borrowItem(item);
         String transaction = String.format("Wypożyczenie: %s -> %s %s (Data: %s)",
             item.getTitle(), user.getFirstName(), user.getLastName(), 
-            java.time.LocalDateTime.now());
+            java.time.LocalDateTime.now(LibraryClock.get()));
         processedTransactions.add(transaction);
         LOGGER.info(transaction);
     }
@@ -74,7 +87,7 @@ public class Librarian extends Human {
         user.returnItem(item);
         String transaction = String.format("Zwrot: %s <- %s %s (Data: %s)",
             item.getTitle(), user.getFirstName(), user.getLastName(),
-            java.time.LocalDateTime.now());
+            java.time.LocalDateTime.now(LibraryClock.get()));
         processedTransactions.add(transaction);
         LOGGER.info(transaction);
     }
@@ -93,6 +106,10 @@ public class Librarian extends Human {
             getFirstName(), getLastName(), getId(), position, processedTransactions.size());
     }
 
+    List<String> getProcessedTransactions() {
+        return processedTransactions;
+    }
+
     // Gettery i settery pozostają bez zmian...
     public double getSalary() {
         return salary;
@@ -0,0 +1,31 @@
+package library.models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Niemodyfikowalny stan wypożyczenia przedmiotu, przechowywany jako kolejne wersje.
+ * Daty zapisane są jako numery dni epoki, bez osobnych obiektów {@link LocalDate}.
+ * @param borrowDay dzień wypożyczenia lub {@link #NO_DAY}, gdy przedmiot jest dostępny
+ * @param dueDay termin zwrotu lub {@link #NO_DAY}, gdy przedmiot jest dostępny
+ */
+record LoanState(int borrowDay, int dueDay) implements Serializable {
+    static final int NO_DAY = Integer.MIN_VALUE;
+    static final LoanState AVAILABLE = new LoanState(NO_DAY, NO_DAY);
+
+    LoanState(LocalDate borrowDate, LocalDate dueDate) {
+        this((int) borrowDate.toEpochDay(), (int) dueDate.toEpochDay());
+    }
+
+    boolean isAvailable() {
+        return borrowDay == NO_DAY;
+    }
+
+    LocalDate borrowDate() {
+        return isAvailable() ? null : LocalDate.ofEpochDay(borrowDay);
+    }
+
+    LocalDate dueDate() {
+        return isAvailable() ? null : LocalDate.ofEpochDay(dueDay);
+    }
+}
@@ -1,74 +1,110 @@
 package library.models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.time.LocalDate;
-import library.exceptions.OverdueException;
 import library.interfaces.Loanable;
+import library.mvcc.Versioned;
+import library.mvcc.Versions;
+import library.time.LibraryClock;
 
+/**
+ * Czasopismo. Wydawca przechowywany jest jako kod słownika {@link MetadataDictionary}.
+ */
 public class Magazine extends Item implements Loanable {
     private int issueNumber;
-    private String publisher;
-    private boolean available;
-    private LocalDate borrowDate;
-    private LocalDate dueDate;
+    private transient int publisher;
+    private static final long serialVersionUID = -6753532555201981051L;
+    /** Pola zapisu zgodne z pierwotnym formatem (stan wypożyczenia jako flaga i daty). */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("issueNumber", int.class),
+        new ObjectStreamField("publisher", String.class),
+        new ObjectStreamField("available", boolean.class),
+        new ObjectStreamField("borrowDate", LocalDate.class),
+        new ObjectStreamField("dueDate", LocalDate.class)
+    };
+
+    private Versioned<LoanState> loan = new Versioned<>(LoanState.AVAILABLE);
 
     public Magazine(String title, int yearOfPublication, int issueNumber, String publisher) {
         super(title, yearOfPublication);
         this.issueNumber = issueNumber;
-        this.publisher = publisher;
-        this.available = true;
+        this.publisher = MetadataDictionary.PUBLISHERS.encode(publisher);
+    }
+
+    /**
+     * Odtwarza czasopismo z zapisanym wcześniej identyfikatorem.
+     */
+    public Magazine(String id, String title, int yearOfPublication, int issueNumber, String publisher) {
+        super(id, title, yearOfPublication);
+        this.issueNumber = issueNumber;
+        this.publisher = MetadataDictionary.PUBLISHERS.encode(publisher);
     }
 
     @Override
     public void displayDetails() {
         System.out.printf("Czasopismo: %s, Numer wydania: %d, Wydawca: %s, Rok: %d%n", 
-            getTitle(), issueNumber, publisher, getYearOfPublication());
+            getTitle(), issueNumber, getPublisher(), getYearOfPublication());
     }
 
     @Override
     public void borrow() {
-        if (!available) {
-            throw new IllegalStateException("Czasopismo jest już wypożyczone");
-        }
-        available = false;
-        borrowDate = LocalDate.now();
-        dueDate = borrowDate.plusDays(30); // Domyślny okres wypożyczenia: 30 dni
+        Versions.commit(() -> {
+            if (!loan.get().isAvailable()) {
+                throw new IllegalStateException("Czasopismo jest już wypożyczone");
+            }
+            LocalDate borrowDate = LibraryClock.today();
+            loan.set(new LoanState(borrowDate, borrowDate.plusDays(30))); // Domyślny okres wypożyczenia: 30 dni
+        });
     }
 
     @Override
-    public void returnItem() throws OverdueException {
-        if (isOverdue()) {
-            throw new OverdueException("Czasopismo jest przetrzymane o " + 
-                Math.abs(daysToReturn()) + " dni");
-        }
-        available = true;
-        borrowDate = null;
-        dueDate = null;
+    public long returnItem() {
+        return Versions.commitAndGet(() -> {
+            LoanState state = loan.get();
+            if (state.isAvailable()) {
+                throw new IllegalStateException("Czasopismo nie jest wypożyczone");
+            }
+            loan.set(LoanState.AVAILABLE);
+            return Math.max(0, LibraryClock.today().toEpochDay() - state.dueDay());
+        });
     }
 
     @Override
     public boolean isAvailable() {
-        return available;
+        return loan.get().isAvailable();
     }
 
     @Override
     public LocalDate getBorrowDate() {
-        return borrowDate;
+        return loan.get().borrowDate();
     }
 
     @Override
     public LocalDate getDueDate() {
-        return dueDate;
+        return loan.get().dueDate();
+    }
+
+    @Override
+    public long getDueEpochDay() {
+        LoanState state = loan.get();
+        return state.isAvailable() ? NOT_BORROWED : state.dueDay();
     }
 
     @Override
     public void extend(int days) {
-        if (available) {
-            throw new IllegalStateException("Nie można przedłużyć terminu - czasopismo nie jest wypożyczone");
-        }
-        if (days < 0) {
-            throw new IllegalArgumentException("Liczba dni nie może być ujemna");
-        }
-        dueDate = dueDate.plusDays(days);
+        Versions.commit(() -> {
+            LoanState state = loan.get();
+            if (state.isAvailable()) {
+                throw new IllegalStateException("Nie można przedłużyć terminu - czasopismo nie jest wypożyczone");
+            }
+            if (days < 0) {
+                throw new IllegalArgumentException("Liczba dni nie może być ujemna");
+            }
+            loan.set(new LoanState(state.borrowDay(), state.dueDay() + days));
+        });
     }
 
     public int getIssueNumber() {
@@ -76,6 +112,51 @@ public class Magazine extends Item implements Loanable {
     }
 
     public String getPublisher() {
-        return publisher;
+        return MetadataDictionary.PUBLISHERS.decode(publisher);
+    }
+
+    @Override
+    public long fingerprint() {
+        long hash = mix(super.fingerprint(), issueNumber);
+        hash = mix(hash, hashOf(getPublisher()));
+        LoanState state = loan.get();
+        hash = mix(hash, state.borrowDay());
+        return mix(hash, state.dueDay());
+    }
+
+    private static long hashOf(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    LoanState getLoanState() {
+        return loan.get();
+    }
+
+    /**
+     * Ustawia stan wypożyczenia odebrany z innej biblioteki (zob. {@link ItemRecord}).
+     */
+    void restoreLoanState(LoanState state) {
+        Versions.commit(() -> loan.set(state));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        LoanState state = loan.get();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("issueNumber", issueNumber);
+        fields.put("publisher", getPublisher());
+        fields.put("available", state.isAvailable());
+        fields.put("borrowDate", state.borrowDate());
+        fields.put("dueDate", state.dueDate());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        issueNumber = fields.get("issueNumber", 0);
+        publisher = MetadataDictionary.PUBLISHERS.encode((String) fields.get("publisher", null));
+        LocalDate borrowDate = (LocalDate) fields.get("borrowDate", null);
+        LocalDate dueDate = (LocalDate) fields.get("dueDate", null);
+        boolean available = fields.get("available", true) || borrowDate == null || dueDate == null;
+        loan = new Versioned<>(available ? LoanState.AVAILABLE : new LoanState(borrowDate, dueDate));
     }
-}
\ No newline at end of file
+}
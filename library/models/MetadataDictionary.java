@@ -0,0 +1,70 @@
+package library.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Słownik powtarzających się wartości opisowych (autorów, gatunków, wydawców).
+ * <p>
+ * Przedmioty przechowują zamiast tekstu kod liczbowy, a każda wartość istnieje w pamięci
+ * jeden raz, niezależnie od liczby przedmiotów, które się do niej odwołują. Kody są ważne
+ * tylko w bieżącym uruchomieniu, dlatego przy serializacji przedmioty zapisują tekst.
+ * Słownik nie usuwa wpisów.
+ */
+public final class MetadataDictionary {
+    public static final MetadataDictionary AUTHORS = new MetadataDictionary();
+    public static final MetadataDictionary GENRES = new MetadataDictionary();
+    public static final MetadataDictionary PUBLISHERS = new MetadataDictionary();
+
+    /** Kod oznaczający brak wartości (null). */
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    private MetadataDictionary() {
+    }
+
+    /**
+     * Pobiera kod wartości, dodając ją do słownika przy pierwszym użyciu.
+     * @param value wartość lub null
+     * @return kod wartości lub {@link #NONE} dla null
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Pobiera wartość o podanym kodzie.
+     * @param code kod zwrócony przez {@link #encode(String)}
+     * @return wartość lub null dla {@link #NONE}
+     */
+    public String decode(int code) {
+        return code == NONE ? null : values[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -1,31 +1,101 @@
 package library.models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
 import java.util.List;
+import library.interfaces.LoanListener;
+import library.interfaces.Loanable;
+import library.mvcc.PersistentVector;
+import library.mvcc.Versioned;
+import library.mvcc.Versions;
 
 public class User extends Human {
-    private List<Item> borrowedItems;
-    private List<Item> borrowingHistory;
+    private static final long serialVersionUID = 391940219042157319L;
+    /** Pola zapisu zgodne z pierwotnym formatem (zwykłe listy przedmiotów). */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("borrowedItems", List.class),
+        new ObjectStreamField("borrowingHistory", List.class)
+    };
+
+    private Versioned<List<Item>> borrowedItems;
+    private Versioned<PersistentVector<Item>> borrowingHistory;
+    private transient LoanListener loanListener;
     
     public User(String firstName, String lastName) {
         super(firstName, lastName);
-        this.borrowedItems = new ArrayList<>();
-        this.borrowingHistory = new ArrayList<>();
+        this.borrowedItems = new Versioned<>(List.of());
+        this.borrowingHistory = new Versioned<>(PersistentVector.empty());
+    }
+
+    /**
+     * Odtwarza czytelnika z zapisanym identyfikatorem i listami pozycji (używane przez {@link HumanCodec}).
+     */
+    User(String firstName, String lastName, String id, List<Item> borrowedItems, List<Item> borrowingHistory) {
+        super(firstName, lastName, id);
+        this.borrowedItems = new Versioned<>(List.copyOf(borrowedItems));
+        this.borrowingHistory = new Versioned<>(PersistentVector.of(borrowingHistory));
     }
     
     public void borrowItem(Item item) {
         if (item instanceof Loanable) {
-            ((Loanable) item).borrow();
-            borrowedItems.add(item);
-            borrowingHistory.add(item);
+            Versions.commit(() -> {
+                ((Loanable) item).borrow();
+                List<Item> borrowed = new ArrayList<>(borrowedItems.get());
+                borrowed.add(item);
+                borrowedItems.set(List.copyOf(borrowed));
+                borrowingHistory.set(borrowingHistory.get().append(item));
+                if (loanListener != null) {
+                    loanListener.onLoan(this, item);
+                }
+            });
         }
     }
     
-    public void returnItem(Item item) {
-        if (item instanceof Loanable) {
-            ((Loanable) item).returnItem();
-            borrowedItems.remove(item);
+    /**
+     * Zwraca przedmiot, również po terminie.
+     * @param item zwracany przedmiot
+     * @return liczba dni opóźnienia (0 gdy zwrot w terminie lub przedmiot nie podlega wypożyczeniu)
+     * @throws IllegalStateException gdy czytelnik nie wypożyczył tego przedmiotu
+     */
+    public long returnItem(Item item) {
+        if (!(item instanceof Loanable)) {
+            return 0;
         }
+        return Versions.commitAndGet(() -> {
+            if (!borrowedItems.get().contains(item)) {
+                throw new IllegalStateException("Czytelnik nie wypożyczył tego przedmiotu");
+            }
+            long daysOverdue = ((Loanable) item).returnItem();
+            List<Item> borrowed = new ArrayList<>(borrowedItems.get());
+            borrowed.remove(item);
+            borrowedItems.set(List.copyOf(borrowed));
+            if (loanListener != null) {
+                loanListener.onReturn(this, item, daysOverdue);
+            }
+            return daysOverdue;
+        });
+    }
+
+    /**
+     * Przedłuża termin zwrotu wypożyczonego przez czytelnika przedmiotu.
+     * @param item wypożyczony przedmiot
+     * @param days liczba dni przedłużenia
+     * @throws IllegalStateException gdy czytelnik nie ma tego przedmiotu
+     * @throws IllegalArgumentException gdy liczba dni jest ujemna
+     */
+    public void extendItem(Item item, int days) {
+        Versions.commit(() -> {
+            if (!(item instanceof Loanable loanable) || !borrowedItems.get().contains(item)) {
+                throw new IllegalStateException("Czytelnik nie wypożyczył tego przedmiotu");
+            }
+            loanable.extend(days);
+            if (loanListener != null) {
+                loanListener.onExtend(this, item);
+            }
+        });
     }
     
     @Override
@@ -33,14 +103,55 @@ public class User extends Human {
         System.out.printf("Czytelnik: %s %s (ID: %s)%n", 
             getFirstName(), getLastName(), getId());
         System.out.println("Aktualnie wypożyczone pozycje:");
-        borrowedItems.forEach(item -> System.out.println("- " + item.getTitle()));
+        borrowedItems.get().forEach(item -> System.out.println("- " + item.getTitle()));
     }
     
+    /**
+     * Ustawia odbiorcę powiadomień o wypożyczeniach i zwrotach (nie jest serializowany).
+     * @param loanListener odbiorca lub null, aby wyłączyć powiadomienia
+     */
+    public void setLoanListener(LoanListener loanListener) {
+        this.loanListener = loanListener;
+    }
+
+    /**
+     * Sprawdza, czy czytelnik ma wypożyczony podany przedmiot (w migawce: w chwili jej przypięcia).
+     * @param item przedmiot
+     * @return true jeśli przedmiot jest na liście wypożyczeń czytelnika
+     */
+    public boolean holds(Item item) {
+        return borrowedItems.get().contains(item);
+    }
+
     public List<Item> getBorrowedItems() {
-        return new ArrayList<>(borrowedItems);
+        return new ArrayList<>(borrowedItems.get());
+    }
+
+    /**
+     * Zwraca bieżącą wersję listy wypożyczeń bez kopiowania.
+     * @return niemodyfikowalna lista wypożyczonych przedmiotów
+     */
+    public List<Item> borrowedItemsView() {
+        return borrowedItems.get();
     }
     
     public List<Item> getBorrowingHistory() {
-        return new ArrayList<>(borrowingHistory);
+        return new ArrayList<>(borrowingHistory.get());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("borrowedItems", new ArrayList<>(borrowedItems.get()));
+        fields.put("borrowingHistory", new ArrayList<>(borrowingHistory.get()));
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        List<Item> borrowed = (List<Item>) fields.get("borrowedItems", null);
+        List<Item> history = (List<Item>) fields.get("borrowingHistory", null);
+        borrowedItems = new Versioned<>(borrowed == null ? List.of() : List.copyOf(borrowed));
+        borrowingHistory = new Versioned<>(history == null ? PersistentVector.empty() : PersistentVector.of(history));
     }
-}
\ No newline at end of file
+}
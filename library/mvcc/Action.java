@@ -0,0 +1,10 @@
+package library.mvcc;
+
+/**
+ * Operacja wykonywana w transakcji zapisu lub w migawce odczytu.
+ * @param <E> typ wyjątku kontrolowanego zgłaszanego przez operację
+ */
+@FunctionalInterface
+public interface Action<E extends Exception> {
+    void run() throws E;
+}
@@ -0,0 +1,106 @@
+package library.mvcc;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Niemodyfikowalna lista, do której można dopisywać w czasie stałym (zamortyzowanym).
+ * <p>
+ * Kolejne wersje listy współdzielą tablicę elementów: każda widzi tylko swój prefiks,
+ * a dopisanie do najnowszej wersji zapisuje element za tym prefiksem bez kopiowania.
+ * Dopisanie do starszej wersji kopiuje jej prefiks do nowej tablicy. Dzięki temu
+ * migawka katalogu to jedna referencja, a dopisanie przedmiotu nie kopiuje całego katalogu.
+ * @param <T> typ elementów
+ */
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 5308280872973034664L;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Object[0], new int[1], 0);
+
+    private final transient Object[] elements;
+    private final transient int[] claimed;
+    private final int size;
+
+    private PersistentVector(Object[] elements, int[] claimed, int size) {
+        this.elements = elements;
+        this.claimed = claimed;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Tworzy listę z elementów kolekcji.
+     * @param elements elementy w kolejności iteracji
+     * @return nowa lista
+     */
+    public static <T> PersistentVector<T> of(Collection<? extends T> elements) {
+        return PersistentVector.<T>empty().appendAll(elements);
+    }
+
+    /**
+     * Zwraca listę z dopisanym elementem; ta lista pozostaje bez zmian.
+     * @param element element do dopisania
+     * @return nowa wersja listy
+     */
+    public PersistentVector<T> append(T element) {
+        return appendAll(List.of(element));
+    }
+
+    /**
+     * Zwraca listę z dopisanymi elementami; ta lista pozostaje bez zmian.
+     * @param added elementy do dopisania
+     * @return nowa wersja listy
+     */
+    public PersistentVector<T> appendAll(Collection<? extends T> added) {
+        int count = added.size();
+        if (count == 0) {
+            return this;
+        }
+        synchronized (claimed) {
+            if (claimed[0] == size && size + count <= elements.length) {
+                int i = size;
+                for (T element : added) {
+                    elements[i++] = element;
+                }
+                claimed[0] = size + count;
+                return new PersistentVector<>(elements, claimed, size + count);
+            }
+        }
+        Object[] grown = Arrays.copyOf(elements, Math.max(8, Math.max(size * 2, size + count)));
+        int i = size;
+        for (T element : added) {
+            grown[i++] = element;
+        }
+        return new PersistentVector<>(grown, new int[] {size + count}, size + count);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(Arrays.copyOf(elements, size));
+    }
+
+    private record SerializedForm(Object[] elements) implements Serializable {
+        private Object readResolve() {
+            return new PersistentVector<>(elements, new int[] {elements.length}, elements.length);
+        }
+    }
+}
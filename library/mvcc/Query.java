@@ -0,0 +1,11 @@
+package library.mvcc;
+
+/**
+ * Zapytanie wykonywane w migawce odczytu.
+ * @param <T> typ wyniku
+ * @param <E> typ wyjątku kontrolowanego zgłaszanego przez zapytanie
+ */
+@FunctionalInterface
+public interface Query<T, E extends Exception> {
+    T call() throws E;
+}
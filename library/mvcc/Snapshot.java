@@ -0,0 +1,66 @@
+package library.mvcc;
+
+/**
+ * Przypięta, spójna wersja danych. Wewnątrz {@link #run(Action)} i {@link #call(Query)}
+ * wszystkie obiekty {@link Versioned} odczytywane w tym wątku zwracają stan z chwili
+ * przypięcia, niezależnie od równoległych transakcji.
+ */
+public final class Snapshot implements AutoCloseable {
+    private final long version;
+    private volatile boolean closed;
+
+    Snapshot(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Pobiera numer przypiętej wersji. Numeracja jest wspólna dla całego procesu
+     * (zob. {@link Versions}), więc numer nie identyfikuje stanu jednej biblioteki.
+     * @return numer wersji
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Wykonuje operację odczytu w tej migawce.
+     * @param action operacja odczytu
+     * @throws E wyjątek zgłoszony przez operację
+     */
+    public <E extends Exception> void run(Action<E> action) throws E {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wykonuje zapytanie w tej migawce.
+     * @param query zapytanie
+     * @return wynik zapytania
+     * @throws E wyjątek zgłoszony przez zapytanie
+     * @throws IllegalStateException gdy migawka została zamknięta
+     */
+    public <T, E extends Exception> T call(Query<T, E> query) throws E {
+        if (closed) {
+            throw new IllegalStateException("Migawka została zamknięta");
+        }
+        Snapshot previous = Versions.bind(this);
+        try {
+            return query.call();
+        } finally {
+            Versions.restore(previous);
+        }
+    }
+
+    /**
+     * Zwalnia migawkę, pozwalając usunąć starsze wersje danych.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            Versions.unpin(version);
+        }
+    }
+}
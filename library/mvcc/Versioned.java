@@ -0,0 +1,86 @@
+package library.mvcc;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Wartość z historią wersji. Zapis dodaje nową wersję na początek łańcucha, a odczyt
+ * w migawce przechodzi łańcuch do najnowszej wersji nie nowszej niż przypięta.
+ * Wartości muszą być niemodyfikowalne. Przy serializacji zapisywana jest tylko wersja
+ * widoczna w bieżącym wątku, a po odczycie staje się ona wersją początkową.
+ * @param <T> typ przechowywanej wartości
+ */
+public final class Versioned<T> implements Serializable {
+    private static final long serialVersionUID = -8963932015188814158L;
+    private transient volatile Node<T> head;
+
+    /**
+     * Tworzy wartość z wersją początkową, widoczną dla wszystkich migawek.
+     * @param initial wartość początkowa
+     */
+    public Versioned(T initial) {
+        this.head = new Node<>(initial, 0, null);
+    }
+
+    /**
+     * Odczytuje wartość: w migawce przypiętej w tym wątku jej wersję, w przeciwnym razie bieżącą.
+     * @return wartość
+     */
+    public T get() {
+        Snapshot snapshot = Versions.boundSnapshot();
+        return snapshot == null ? head.value : at(snapshot.getVersion());
+    }
+
+    /**
+     * Ustawia nową wartość w bieżącej transakcji.
+     * @param value nowa, niemodyfikowalna wartość
+     * @throws IllegalStateException gdy wywołane poza {@link Versions#commit(Action)}
+     */
+    public void set(T value) {
+        long version = Versions.writeVersion();
+        Node<T> current = head;
+        Node<T> node = new Node<>(value, version, current.version == version ? current.previous : current);
+        long oldest = Versions.oldestVisible();
+        for (Node<T> n = node; n != null; n = n.previous) {
+            if (n.version <= oldest) {
+                n.previous = null;
+                break;
+            }
+        }
+        head = node;
+    }
+
+    private T at(long version) {
+        Node<T> node = head;
+        while (node.version > version) {
+            node = node.previous;
+            if (node == null) {
+                throw new IllegalStateException("Wersja " + version + " nie jest już dostępna");
+            }
+        }
+        return node.value;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeObject(get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        head = new Node<>((T) in.readObject(), 0, null);
+    }
+
+    private static final class Node<T> {
+        final T value;
+        final long version;
+        volatile Node<T> previous;
+
+        Node(T value, long version, Node<T> previous) {
+            this.value = value;
+            this.version = version;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package library.mvcc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Globalny licznik wersji danych biblioteki (MVCC).
+ * <p>
+ * Zmiany obiektów {@link Versioned} wykonywane są w transakcjach {@link #commit(Action)},
+ * które są szeregowane jedną blokadą i otrzymują kolejne numery wersji. Czytelnik przypina
+ * ostatnią zatwierdzoną wersję przez {@link #pin()} bez blokowania zapisujących i widzi
+ * spójny stan z chwili przypięcia, dopóki nie zamknie migawki. Stare wersje są usuwane
+ * przy kolejnych zapisach, gdy żadna przypięta migawka ich nie potrzebuje.
+ * <p>
+ * Blokada, licznik wersji i lista przypiętych migawek są wspólne dla całego procesu: wszystkie
+ * biblioteki w tej samej maszynie wirtualnej mają jeden punkt szeregowania zapisów, a zmiana
+ * w jednej bibliotece zwiększa numer wersji widziany przez pozostałe. Numer wersji nie oznacza
+ * więc, że zmieniła się konkretna biblioteka; do wykrywania jej zmian służy jej dziennik zmian
+ * ({@code Library.getChangeLog()}).
+ */
+public final class Versions {
+    private static final ReentrantLock COMMIT_LOCK = new ReentrantLock();
+    private static final ConcurrentSkipListMap<Long, Integer> PINS = new ConcurrentSkipListMap<>();
+    private static final ThreadLocal<Snapshot> BOUND = new ThreadLocal<>();
+    private static volatile int boundReaders;
+    private static volatile long committed;
+    private static long pending;
+
+    private Versions() {
+    }
+
+    /**
+     * Wykonuje zmianę jako jedną transakcję. Zagnieżdżone wywołania należą do transakcji
+     * zewnętrznej, więc wszystkie ich zmiany stają się widoczne dla nowych migawek jednocześnie.
+     * Operacja powinna sprawdzić warunki przed pierwszą zmianą: wyjątek po częściowym zapisie
+     * nie wycofuje wcześniejszych zmian.
+     * @param mutation zmiana danych
+     * @throws E wyjątek zgłoszony przez zmianę
+     * @throws IllegalStateException gdy wątek odczytuje właśnie migawkę
+     */
+    public static <E extends Exception> void commit(Action<E> mutation) throws E {
+        commitAndGet(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wykonuje zmianę jako jedną transakcję i zwraca jej wynik (zob. {@link #commit(Action)}).
+     * @param mutation zmiana danych zwracająca wynik
+     * @return wynik zmiany
+     * @throws E wyjątek zgłoszony przez zmianę
+     */
+    public static <T, E extends Exception> T commitAndGet(Query<T, E> mutation) throws E {
+        if (BOUND.get() != null) {
+            throw new IllegalStateException("Nie można modyfikować danych podczas odczytu migawki");
+        }
+        COMMIT_LOCK.lock();
+        try {
+            if (COMMIT_LOCK.getHoldCount() > 1) {
+                return mutation.call();
+            }
+            pending = committed + 1;
+            try {
+                return mutation.call();
+            } finally {
+                committed = pending;
+            }
+        } finally {
+            COMMIT_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Przypina ostatnią zatwierdzoną wersję. Nie czeka na trwające transakcje.
+     * @return migawka, którą należy zamknąć po zakończeniu odczytu
+     */
+    public static Snapshot pin() {
+        while (true) {
+            long version = committed;
+            PINS.merge(version, 1, Integer::sum);
+            // Transakcja zakończona przed rejestracją mogła już usunąć wersje potrzebne tej migawce.
+            if (committed == version) {
+                return new Snapshot(version);
+            }
+            unpin(version);
+        }
+    }
+
+    static void unpin(long version) {
+        PINS.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    static long writeVersion() {
+        if (!COMMIT_LOCK.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Zmiana danych poza transakcją Versions.commit");
+        }
+        return pending;
+    }
+
+    /**
+     * Najstarsza wersja, którą może jeszcze odczytać przypięta migawka.
+     */
+    static long oldestVisible() {
+        Map.Entry<Long, Integer> oldestPin = PINS.firstEntry();
+        return oldestPin == null ? committed : Math.min(oldestPin.getKey(), committed);
+    }
+
+    static Snapshot bind(Snapshot snapshot) {
+        Snapshot previous = BOUND.get();
+        BOUND.set(snapshot);
+        if (previous == null) {
+            synchronized (Versions.class) {
+                boundReaders++;
+            }
+        }
+        return previous;
+    }
+
+    static void restore(Snapshot previous) {
+        if (previous == null) {
+            BOUND.remove();
+            synchronized (Versions.class) {
+                boundReaders--;
+            }
+        } else {
+            BOUND.set(previous);
+        }
+    }
+
+    /**
+     * Pobiera migawkę odczytywaną w bieżącym wątku.
+     * @return migawka lub null, gdy wątek czyta bieżący stan
+     */
+    static Snapshot boundSnapshot() {
+        return boundReaders == 0 ? null : BOUND.get();
+    }
+}
@@ -0,0 +1,195 @@
+package library.recommendations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import library.interfaces.LoanListener;
+import library.models.Item;
+import library.models.User;
+
+/**
+ * Indeks „czytelnicy, którzy wypożyczyli tę pozycję, wypożyczyli też...”.
+ * <p>
+ * Indeks budowany jest równolegle (fork/join) z historii wypożyczeń wszystkich czytelników,
+ * a następnie aktualizowany przyrostowo przy każdym nowym wypożyczeniu ({@link LoanListener}).
+ * Dla każdego przedmiotu przechowywany jest ograniczony wiersz sąsiadów ({@link CoBorrowMatrix}),
+ * więc pamięć rośnie liniowo z liczbą przedmiotów, a odczyt najczęstszych sąsiadów
+ * nie zależy od liczby czytelników ani wypożyczeń. Z historii każdego czytelnika brane jest
+ * pod uwagę najwyżej {@value #MAX_HISTORY_PER_USER} ostatnich pozycji, aby pojedyncze
+ * bardzo długie historie nie generowały kwadratowej liczby par.
+ */
+public class CoBorrowIndex implements LoanListener {
+    public static final int DEFAULT_TOP_N = 10;
+    static final int MAX_HISTORY_PER_USER = 200;
+    private static final int CANDIDATES_PER_RESULT = 4;
+    private static final int MIN_USERS_PER_TASK = 1_024;
+
+    private final int topN;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> itemIds = new ArrayList<>();
+    private CoBorrowMatrix matrix;
+
+    private CoBorrowIndex(int topN) {
+        this.topN = topN;
+    }
+
+    /**
+     * Buduje indeks z historii wypożyczeń czytelników.
+     * @param users czytelnicy biblioteki
+     * @param topN liczba sąsiadów zwracanych dla przedmiotu
+     * @return zbudowany indeks
+     * @throws IllegalArgumentException gdy topN nie jest dodatnie
+     */
+    public static CoBorrowIndex build(Collection<User> users, int topN) {
+        if (topN <= 0) {
+            throw new IllegalArgumentException("Liczba polecanych pozycji musi być dodatnia");
+        }
+        CoBorrowIndex index = new CoBorrowIndex(topN);
+        int[][] histories = new int[users.size()][];
+        int u = 0;
+        for (User user : users) {
+            histories[u++] = index.distinctOrdinals(user.getBorrowingHistory(), null);
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int usersPerTask = Math.max(MIN_USERS_PER_TASK, histories.length / (pool.getParallelism() * 4));
+        index.matrix = pool.invoke(new BuildTask(histories, 0, histories.length, usersPerTask,
+            topN * CANDIDATES_PER_RESULT, index.itemIds.size()));
+        return index;
+    }
+
+    /**
+     * Uwzględnia nowe wypożyczenie: zwiększa liczniki wypożyczonego przedmiotu ze wszystkimi
+     * pozycjami z wcześniejszej historii czytelnika. Ponowne wypożyczenie tej samej pozycji
+     * nie zmienia indeksu.
+     */
+    @Override
+    public void onLoan(User user, Item item) {
+        onLoan(user.getBorrowingHistory(), item);
+    }
+
+    /**
+     * Uwzględnia wypożyczenie zapamiętane wcześniej (zob. {@link #onLoan(User, Item)}).
+     * @param history historia czytelnika z chwili wypożyczenia, łącznie z wypożyczonym przedmiotem
+     * @param item wypożyczony przedmiot
+     */
+    public synchronized void onLoan(List<Item> history, Item item) {
+        int occurrences = 0;
+        for (Item borrowed : history) {
+            if (borrowed.getId().equals(item.getId())) {
+                occurrences++;
+            }
+        }
+        if (occurrences > 1) {
+            return;
+        }
+        int ordinal = ordinalOf(item.getId());
+        for (int other : distinctOrdinals(history, ordinal)) {
+            matrix.increment(ordinal, other, 1);
+            matrix.increment(other, ordinal, 1);
+        }
+    }
+
+    /**
+     * Zwraca przedmioty najczęściej wypożyczane razem z podanym.
+     * @param itemId identyfikator przedmiotu
+     * @return do topN polecanych pozycji, od najczęstszej; pusta lista dla nieznanego przedmiotu
+     */
+    public synchronized List<Recommendation> alsoBorrowed(String itemId) {
+        Integer ordinal = ordinals.get(itemId);
+        if (ordinal == null) {
+            return List.of();
+        }
+        int[] top = matrix.top(ordinal, topN);
+        List<Recommendation> result = new ArrayList<>(top.length / 2);
+        for (int i = 0; i < top.length; i += 2) {
+            result.add(new Recommendation(itemIds.get(top[i]), top[i + 1]));
+        }
+        return result;
+    }
+
+    private int ordinalOf(String itemId) {
+        Integer ordinal = ordinals.get(itemId);
+        if (ordinal == null) {
+            ordinal = itemIds.size();
+            ordinals.put(itemId, ordinal);
+            itemIds.add(itemId);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Zamienia ostatnie pozycje historii na posortowaną tablicę różnych numerów porządkowych.
+     * @param exclude numer pomijany w wyniku lub null
+     */
+    private int[] distinctOrdinals(List<Item> history, Integer exclude) {
+        int from = Math.max(0, history.size() - MAX_HISTORY_PER_USER);
+        int[] result = new int[history.size() - from];
+        int count = 0;
+        for (int i = from; i < history.size(); i++) {
+            int ordinal = ordinalOf(history.get(i).getId());
+            if (exclude == null || ordinal != exclude) {
+                result[count++] = ordinal;
+            }
+        }
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Liczy współwypożyczenia dla zakresu czytelników; duże zakresy dzieli na pół,
+     * a wyniki łączy scalając ograniczone macierze.
+     */
+    private static final class BuildTask extends RecursiveTask<CoBorrowMatrix> {
+        private static final long serialVersionUID = 3075997315290222772L;
+        private final int[][] histories;
+        private final int from;
+        private final int to;
+        private final int usersPerTask;
+        private final int capacity;
+        private final int itemCount;
+
+        BuildTask(int[][] histories, int from, int to, int usersPerTask, int capacity, int itemCount) {
+            this.histories = histories;
+            this.from = from;
+            this.to = to;
+            this.usersPerTask = usersPerTask;
+            this.capacity = capacity;
+            this.itemCount = itemCount;
+        }
+
+        @Override
+        protected CoBorrowMatrix compute() {
+            if (to - from <= usersPerTask) {
+                CoBorrowMatrix matrix = new CoBorrowMatrix(capacity, itemCount);
+                for (int u = from; u < to; u++) {
+                    int[] history = histories[u];
+                    for (int i = 0; i < history.length; i++) {
+                        for (int j = i + 1; j < history.length; j++) {
+                            matrix.increment(history[i], history[j], 1);
+                            matrix.increment(history[j], history[i], 1);
+                        }
+                    }
+                }
+                return matrix;
+            }
+            int mid = (from + to) >>> 1;
+            BuildTask left = new BuildTask(histories, from, mid, usersPerTask, capacity, itemCount);
+            left.fork();
+            CoBorrowMatrix right = new BuildTask(histories, mid, to, usersPerTask, capacity, itemCount).compute();
+            CoBorrowMatrix merged = left.join();
+            merged.mergeFrom(right);
+            return merged;
+        }
+    }
+}
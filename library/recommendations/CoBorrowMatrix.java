@@ -0,0 +1,99 @@
+package library.recommendations;
+
+import java.util.Arrays;
+
+/**
+ * Ograniczona macierz współwypożyczeń przechowywana w tablicach prymitywnych.
+ * <p>
+ * Dla każdego przedmiotu (numer porządkowy) trzymany jest wiersz o pojemności
+ * {@code capacity} par (sąsiad, licznik), posortowany malejąco po liczniku.
+ * Gdy wiersz jest pełny, nowy sąsiad zastępuje ostatni (najrzadszy) wpis z licznikiem
+ * o jeden większym (algorytm Space-Saving). Liczniki mogą być więc zawyżone, ale pamięć
+ * na przedmiot jest stała niezależnie od jego popularności, a najczęstsi sąsiedzi
+ * pozostają w czołówce wiersza. Klasa nie jest bezpieczna wątkowo.
+ */
+class CoBorrowMatrix {
+    private final int capacity;
+    private int[][] rows;
+    private int[] sizes;
+
+    CoBorrowMatrix(int capacity, int expectedItems) {
+        this.capacity = capacity;
+        this.rows = new int[Math.max(expectedItems, 16)][];
+        this.sizes = new int[rows.length];
+    }
+
+    /**
+     * Zwiększa licznik współwypożyczeń przedmiotu {@code item} z {@code neighbour}.
+     */
+    void increment(int item, int neighbour, int delta) {
+        int[] row = row(item);
+        int size = sizes[item];
+        for (int i = 0; i < size; i++) {
+            if (row[2 * i] == neighbour) {
+                row[2 * i + 1] += delta;
+                bubbleUp(row, i);
+                return;
+            }
+        }
+        if (size < capacity) {
+            row[2 * size] = neighbour;
+            row[2 * size + 1] = delta;
+            sizes[item] = size + 1;
+            bubbleUp(row, size);
+        } else {
+            int last = capacity - 1;
+            row[2 * last] = neighbour;
+            row[2 * last + 1] += delta;
+            bubbleUp(row, last);
+        }
+    }
+
+    /**
+     * Dodaje do tej macierzy liczniki z innej macierzy o tej samej pojemności.
+     */
+    void mergeFrom(CoBorrowMatrix other) {
+        for (int item = 0; item < other.rows.length; item++) {
+            int[] otherRow = other.rows[item];
+            for (int i = 0; i < other.sizes[item]; i++) {
+                increment(item, otherRow[2 * i], otherRow[2 * i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Kopiuje co najwyżej {@code limit} najczęstszych sąsiadów do tablicy
+     * w układzie (sąsiad, licznik, sąsiad, licznik, ...).
+     */
+    int[] top(int item, int limit) {
+        if (item >= rows.length || rows[item] == null) {
+            return new int[0];
+        }
+        int count = Math.min(limit, sizes[item]);
+        return Arrays.copyOf(rows[item], 2 * count);
+    }
+
+    private int[] row(int item) {
+        if (item >= rows.length) {
+            int length = Math.max(item + 1, rows.length * 2);
+            rows = Arrays.copyOf(rows, length);
+            sizes = Arrays.copyOf(sizes, length);
+        }
+        if (rows[item] == null) {
+            rows[item] = new int[2 * capacity];
+        }
+        return rows[item];
+    }
+
+    private static void bubbleUp(int[] row, int index) {
+        while (index > 0 && row[2 * index + 1] > row[2 * index - 1]) {
+            int neighbour = row[2 * index];
+            int count = row[2 * index + 1];
+            row[2 * index] = row[2 * index - 2];
+            row[2 * index + 1] = row[2 * index - 1];
+            row[2 * index - 2] = neighbour;
+            row[2 * index - 1] = count;
+            index--;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package library.recommendations;
+
+/**
+ * Pozycja polecana na podstawie wspólnych wypożyczeń.
+ * @param itemId identyfikator polecanego przedmiotu
+ * @param coBorrowCount szacowana liczba czytelników, którzy wypożyczyli oba przedmioty
+ */
+public record Recommendation(String itemId, int coBorrowCount) {
+}
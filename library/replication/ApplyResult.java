@@ -0,0 +1,15 @@
+package library.replication;
+
+import java.util.List;
+
+/**
+ * Wynik zastosowania stanów przedmiotów odebranych z innej biblioteki.
+ * @param itemsApplied liczba przedmiotów dodanych lub zmienionych lokalnie
+ * @param conflicts identyfikatory przedmiotów pominiętych, bo wypożyczył je lokalny czytelnik,
+ *                  a odebrany stan wypożyczenia jest inny
+ */
+public record ApplyResult(int itemsApplied, List<String> conflicts) {
+    public ApplyResult {
+        conflicts = List.copyOf(conflicts);
+    }
+}
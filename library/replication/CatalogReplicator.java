@@ -0,0 +1,180 @@
+package library.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import library.Library;
+import library.models.ItemRecord;
+import library.mvcc.Snapshot;
+
+/**
+ * Pobiera zmiany katalogu i stanu wypożyczeń z innej biblioteki, przesyłając tylko różnice.
+ * <p>
+ * Obie strony budują drzewo Merkle nad skrótami przedmiotów. Synchronizacja porównuje korzenie,
+ * a następnie poziom po poziomie pobiera skróty tylko tych węzłów, których rodzice się różnią.
+ * Dla różniących się liści pobierane są pary (klucz, skrót), a pełny stan tylko tych przedmiotów,
+ * których brakuje lokalnie lub których skrót jest inny. Zmiany stosowane są w jednej transakcji
+ * ({@link Library#applyReplicatedItems}). Przy niewielkich zmianach przesyłane są kilobajty,
+ * niezależnie od wielkości katalogu.
+ * <p>
+ * Replikacja jest jednokierunkowa: przedmioty istniejące tylko lokalnie nie są usuwane,
+ * a jedynie liczone w raporcie. Przedmioty wypożyczone przez lokalnych czytelników nie są
+ * nadpisywane innym stanem wypożyczenia i trafiają do raportu jako konflikty.
+ */
+public class CatalogReplicator {
+    /** Maksymalna liczba przedmiotów pobieranych w jednym zapytaniu. */
+    public static final int FETCH_BATCH = 5_000;
+
+    private final Library local;
+    private final ReplicationTransport transport;
+    private int roundTrips;
+    private long bytesSent;
+    private long bytesReceived;
+
+    public CatalogReplicator(Library local, ReplicationTransport transport) {
+        this.local = local;
+        this.transport = transport;
+    }
+
+    /**
+     * Synchronizuje lokalny katalog z biblioteką źródłową.
+     * @return podsumowanie synchronizacji
+     * @throws IOException błąd transportu lub nieprawidłowa odpowiedź
+     */
+    public synchronized SyncReport sync() throws IOException {
+        long start = System.nanoTime();
+        roundTrips = 0;
+        bytesSent = 0;
+        bytesReceived = 0;
+
+        MerkleTree tree;
+        try (Snapshot snapshot = local.snapshot()) {
+            tree = snapshot.call(() -> MerkleTree.build(local.getAllItems()));
+        }
+
+        List<Integer> candidates = List.of(0);
+        List<Integer> differing = new ArrayList<>();
+        for (int level = 0; level <= MerkleTree.DEPTH && !candidates.isEmpty(); level++) {
+            long[] remote = fetchHashes(level, candidates);
+            differing = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (remote[i] != tree.hash(level, candidates.get(i))) {
+                    differing.add(candidates.get(i));
+                }
+            }
+            if (level < MerkleTree.DEPTH) {
+                candidates = children(differing);
+            }
+        }
+        List<Integer> differingLeaves = differing;
+
+        List<long[]> toFetch = new ArrayList<>();
+        int localOnly = 0;
+        if (!differingLeaves.isEmpty()) {
+            DataInputStream in = exchange(out -> {
+                out.writeByte(ReplicationServer.LEAF_ENTRIES);
+                writeIndices(out, differingLeaves);
+            });
+            for (int leaf : differingLeaves) {
+                Map<UUID, Long> localEntries = new HashMap<>();
+                for (int slot = tree.leafStart(leaf); slot < tree.leafEnd(leaf); slot++) {
+                    localEntries.put(new UUID(tree.keyHigh(slot), tree.keyLow(slot)), tree.fingerprint(slot));
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    long high = in.readLong();
+                    long low = in.readLong();
+                    long fingerprint = in.readLong();
+                    Long localFingerprint = localEntries.remove(new UUID(high, low));
+                    if (localFingerprint == null || localFingerprint != fingerprint) {
+                        toFetch.add(new long[] {high, low});
+                    }
+                }
+                localOnly += localEntries.size();
+            }
+        }
+
+        List<ItemRecord> records = new ArrayList<>(toFetch.size());
+        for (int from = 0; from < toFetch.size(); from += FETCH_BATCH) {
+            records.addAll(fetchItems(toFetch.subList(from, Math.min(toFetch.size(), from + FETCH_BATCH))));
+        }
+        ApplyResult applied = records.isEmpty()
+            ? new ApplyResult(0, List.of())
+            : local.applyReplicatedItems(records);
+        return new SyncReport(roundTrips, bytesSent, bytesReceived, differingLeaves.size(), records.size(),
+            applied.itemsApplied(), applied.conflicts(), localOnly, System.nanoTime() - start);
+    }
+
+    private long[] fetchHashes(int level, List<Integer> nodes) throws IOException {
+        DataInputStream in = exchange(out -> {
+            out.writeByte(ReplicationServer.NODE_HASHES);
+            out.writeByte(level);
+            writeIndices(out, nodes);
+        });
+        long[] hashes = new long[nodes.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = in.readLong();
+        }
+        return hashes;
+    }
+
+    private List<ItemRecord> fetchItems(List<long[]> keys) throws IOException {
+        DataInputStream in = exchange(out -> {
+            out.writeByte(ReplicationServer.FETCH_ITEMS);
+            out.writeInt(keys.size());
+            for (long[] key : keys) {
+                out.writeLong(key[0]);
+                out.writeLong(key[1]);
+            }
+        });
+        List<ItemRecord> records = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (in.readBoolean()) {
+                records.add(ItemRecord.readFrom(in));
+            }
+        }
+        return records;
+    }
+
+    private static List<Integer> children(List<Integer> parents) {
+        List<Integer> children = new ArrayList<>(parents.size() * MerkleTree.FANOUT);
+        for (int parent : parents) {
+            for (int child = 0; child < MerkleTree.FANOUT; child++) {
+                children.add(parent * MerkleTree.FANOUT + child);
+            }
+        }
+        return children;
+    }
+
+    private static void writeIndices(DataOutputStream out, List<Integer> indices) throws IOException {
+        out.writeInt(indices.size());
+        for (int index : indices) {
+            out.writeInt(index);
+        }
+    }
+
+    private DataInputStream exchange(RequestWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        byte[] request = bytes.toByteArray();
+        byte[] response = transport.exchange(request);
+        roundTrips++;
+        bytesSent += request.length;
+        bytesReceived += response.length;
+        return new DataInputStream(new ByteArrayInputStream(response));
+    }
+
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package library.replication;
+
+import java.io.IOException;
+import library.Library;
+
+/**
+ * Transport w obrębie jednego procesu: zapytania obsługuje bezpośrednio {@link ReplicationServer}
+ * biblioteki źródłowej. Komunikaty są kodowane tak samo jak w transporcie sieciowym,
+ * więc liczba przesłanych bajtów odpowiada rzeczywistej wymianie.
+ */
+public class LoopbackTransport implements ReplicationTransport {
+    private final ReplicationServer server;
+
+    public LoopbackTransport(Library source) {
+        this.server = new ReplicationServer(source);
+    }
+
+    @Override
+    public byte[] exchange(byte[] request) throws IOException {
+        return server.handle(request);
+    }
+}
@@ -0,0 +1,239 @@
+package library.replication;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import library.models.Item;
+
+/**
+ * Drzewo Merkle nad skrótami przedmiotów katalogu (zob. {@link Item#fingerprint()}).
+ * <p>
+ * Przedmioty trafiają do {@value #LEAVES} liści według najstarszych bitów klucza. Skrót liścia
+ * nie zależy od kolejności przedmiotów, a skrót węzła wewnętrznego powstaje ze skrótów
+ * jego {@value #FANOUT} dzieci. Dwie biblioteki o tym samym katalogu i stanie wypożyczeń
+ * mają ten sam korzeń, a różnice można zlokalizować, schodząc tylko do różniących się poddrzew.
+ * Po zmianie pojedynczych przedmiotów przeliczane są tylko ich liście i przodkowie.
+ */
+final class MerkleTree {
+    static final int FANOUT_BITS = 4;
+    static final int FANOUT = 1 << FANOUT_BITS;
+    static final int DEPTH = 3;
+    static final int LEAF_BITS = FANOUT_BITS * DEPTH;
+    static final int LEAVES = 1 << LEAF_BITS;
+
+    private final long[][] levels = new long[DEPTH + 1][];
+    private final long[] leafSums = new long[LEAVES];
+    private final int[] leafOffsets = new int[LEAVES + 1];
+    private long[] keyHigh;
+    private long[] keyLow;
+    private long[] fingerprints;
+    private Item[] items;
+
+    private MerkleTree(int size) {
+        this.keyHigh = new long[size];
+        this.keyLow = new long[size];
+        this.fingerprints = new long[size];
+        this.items = new Item[size];
+        for (int level = 0; level <= DEPTH; level++) {
+            levels[level] = new long[nodesAt(level)];
+        }
+    }
+
+    /**
+     * Buduje drzewo. Wywołujący powinien przekazać przedmioty z migawki i odczytywać je w niej,
+     * aby skróty odpowiadały jednej wersji stanu wypożyczeń.
+     * @param catalog przedmioty katalogu
+     * @return drzewo katalogu
+     */
+    static MerkleTree build(List<Item> catalog) {
+        MerkleTree tree = new MerkleTree(catalog.size());
+        int[] leafOf = new int[catalog.size()];
+        UUID[] keys = new UUID[catalog.size()];
+        for (int i = 0; i < catalog.size(); i++) {
+            keys[i] = catalog.get(i).getKey();
+            leafOf[i] = leafOf(keys[i].getMostSignificantBits());
+            tree.leafOffsets[leafOf[i] + 1]++;
+        }
+        for (int leaf = 0; leaf < LEAVES; leaf++) {
+            tree.leafOffsets[leaf + 1] += tree.leafOffsets[leaf];
+        }
+        int[] next = Arrays.copyOf(tree.leafOffsets, LEAVES);
+        for (int i = 0; i < catalog.size(); i++) {
+            int slot = next[leafOf[i]]++;
+            Item item = catalog.get(i);
+            tree.items[slot] = item;
+            tree.keyHigh[slot] = keys[i].getMostSignificantBits();
+            tree.keyLow[slot] = keys[i].getLeastSignificantBits();
+            tree.fingerprints[slot] = item.fingerprint();
+            tree.leafSums[leafOf[i]] += tree.fingerprints[slot];
+        }
+
+        for (int leaf = 0; leaf < LEAVES; leaf++) {
+            tree.levels[DEPTH][leaf] = tree.leafHash(leaf);
+        }
+        for (int level = DEPTH - 1; level >= 0; level--) {
+            for (int node = 0; node < nodesAt(level); node++) {
+                tree.levels[level][node] = tree.nodeHash(level, node);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Dodaje nowe przedmioty. Istniejące wpisy są tylko przenoszone (bez ponownego liczenia
+     * skrótów), a przeliczane są jedynie liście z nowymi przedmiotami i ich przodkowie.
+     * @param added przedmioty, których jeszcze nie ma w drzewie
+     */
+    void addAll(List<Item> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        int[] addedPerLeaf = new int[LEAVES];
+        for (Item item : added) {
+            addedPerLeaf[leafOf(item.getKey().getMostSignificantBits())]++;
+        }
+        int size = keyHigh.length + added.size();
+        long[] newKeyHigh = new long[size];
+        long[] newKeyLow = new long[size];
+        long[] newFingerprints = new long[size];
+        Item[] newItems = new Item[size];
+        int[] next = new int[LEAVES];
+        int offset = 0;
+        for (int leaf = 0; leaf < LEAVES; leaf++) {
+            int from = leafOffsets[leaf];
+            int length = leafOffsets[leaf + 1] - from;
+            System.arraycopy(keyHigh, from, newKeyHigh, offset, length);
+            System.arraycopy(keyLow, from, newKeyLow, offset, length);
+            System.arraycopy(fingerprints, from, newFingerprints, offset, length);
+            System.arraycopy(items, from, newItems, offset, length);
+            leafOffsets[leaf] = offset;
+            next[leaf] = offset + length;
+            offset += length + addedPerLeaf[leaf];
+        }
+        leafOffsets[LEAVES] = offset;
+        keyHigh = newKeyHigh;
+        keyLow = newKeyLow;
+        fingerprints = newFingerprints;
+        items = newItems;
+        for (Item item : added) {
+            UUID key = item.getKey();
+            int leaf = leafOf(key.getMostSignificantBits());
+            int slot = next[leaf]++;
+            items[slot] = item;
+            keyHigh[slot] = key.getMostSignificantBits();
+            keyLow[slot] = key.getLeastSignificantBits();
+            fingerprints[slot] = item.fingerprint();
+            leafSums[leaf] += fingerprints[slot];
+        }
+        for (int leaf = 0; leaf < LEAVES; leaf++) {
+            if (addedPerLeaf[leaf] > 0) {
+                refresh(leaf);
+            }
+        }
+    }
+
+    /**
+     * Przelicza skrót przedmiotu po zmianie jego stanu oraz skróty jego liścia i przodków.
+     * @param item przedmiot obecny w drzewie
+     * @return false jeśli przedmiotu nie ma w drzewie
+     */
+    boolean update(Item item) {
+        UUID key = item.getKey();
+        int slot = slotOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (slot < 0) {
+            return false;
+        }
+        long fingerprint = item.fingerprint();
+        int leaf = leafOf(key.getMostSignificantBits());
+        leafSums[leaf] += fingerprint - fingerprints[slot];
+        fingerprints[slot] = fingerprint;
+        items[slot] = item;
+        refresh(leaf);
+        return true;
+    }
+
+    int size() {
+        return keyHigh.length;
+    }
+
+    private void refresh(int leaf) {
+        levels[DEPTH][leaf] = leafHash(leaf);
+        int node = leaf;
+        for (int level = DEPTH - 1; level >= 0; level--) {
+            node >>>= FANOUT_BITS;
+            levels[level][node] = nodeHash(level, node);
+        }
+    }
+
+    private long leafHash(int leaf) {
+        return mix(leafSums[leaf], leafOffsets[leaf + 1] - leafOffsets[leaf]);
+    }
+
+    private long nodeHash(int level, int node) {
+        long[] children = levels[level + 1];
+        long hash = level;
+        for (int child = 0; child < FANOUT; child++) {
+            hash = mix(hash, children[node * FANOUT + child]);
+        }
+        return hash;
+    }
+
+    static int leafOf(long keyHigh) {
+        return (int) (keyHigh >>> (Long.SIZE - LEAF_BITS));
+    }
+
+    static int nodesAt(int level) {
+        return 1 << (FANOUT_BITS * level);
+    }
+
+    long hash(int level, int node) {
+        return levels[level][node];
+    }
+
+    int leafStart(int leaf) {
+        return leafOffsets[leaf];
+    }
+
+    int leafEnd(int leaf) {
+        return leafOffsets[leaf + 1];
+    }
+
+    long keyHigh(int slot) {
+        return keyHigh[slot];
+    }
+
+    long keyLow(int slot) {
+        return keyLow[slot];
+    }
+
+    long fingerprint(int slot) {
+        return fingerprints[slot];
+    }
+
+    /**
+     * Wyszukuje przedmiot o podanym kluczu w jego liściu.
+     * @return przedmiot lub null
+     */
+    Item find(long high, long low) {
+        int slot = slotOf(high, low);
+        return slot < 0 ? null : items[slot];
+    }
+
+    private int slotOf(long high, long low) {
+        int leaf = leafOf(high);
+        for (int slot = leafOffsets[leaf]; slot < leafOffsets[leaf + 1]; slot++) {
+            if (keyHigh[slot] == high && keyLow[slot] == low) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = hash ^ (value * 0x9e3779b97f4a7c15L);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,195 @@
+package library.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import library.Library;
+import library.events.ChangeEvent;
+import library.events.ChangeLog;
+import library.events.ChangeRecord;
+import library.models.Item;
+import library.models.ItemRecord;
+import library.mvcc.Snapshot;
+import library.mvcc.Versions;
+
+/**
+ * Strona źródłowa replikacji: odpowiada na zapytania o skróty węzłów drzewa Merkle,
+ * zawartość liści i pełny stan wybranych przedmiotów.
+ * <p>
+ * Drzewo budowane jest raz na migawce katalogu, a potem aktualizowane przyrostowo według
+ * dziennika zmian tej biblioteki ({@link ChangeLog}): przeliczane są tylko przedmioty dodane
+ * lub zmienione od ostatniego zapytania. Zmiany w innych bibliotekach tego samego procesu
+ * nie wpływają na drzewo. Całe drzewo jest budowane od nowa tylko po wczytaniu katalogu
+ * z pliku, gdy potrzebnych zmian nie ma już w dzienniku albo gdy zmian jest więcej niż
+ * {@value #MAX_INCREMENTAL_FRACTION_INVERSE}-ta część katalogu. Jeśli katalog zmieni się
+ * w trakcie synchronizacji, odbiorca może otrzymać część zmian w następnej synchronizacji,
+ * ale nigdy niespójny stan przedmiotu.
+ */
+public class ReplicationServer {
+    static final byte NODE_HASHES = 1;
+    static final byte LEAF_ENTRIES = 2;
+    static final byte FETCH_ITEMS = 3;
+    static final int MAX_INCREMENTAL_FRACTION_INVERSE = 8;
+    private static final int CHANGE_BATCH = 4_096;
+
+    private final Library library;
+    private MerkleTree tree;
+    private long treeSequence;
+
+    public ReplicationServer(Library library) {
+        this.library = library;
+    }
+
+    /**
+     * Obsługuje zakodowane zapytanie.
+     * @param request zapytanie
+     * @return odpowiedź
+     * @throws IOException gdy zapytanie jest nieprawidłowe
+     */
+    public byte[] handle(byte[] request) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(request));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte type = in.readByte();
+        switch (type) {
+            case NODE_HASHES -> writeNodeHashes(in, out);
+            case LEAF_ENTRIES -> writeLeafEntries(in, out);
+            case FETCH_ITEMS -> writeItems(in, out);
+            default -> throw new IOException("Nieznany typ zapytania replikacji: " + type);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private synchronized void writeNodeHashes(DataInputStream in, DataOutputStream out) throws IOException {
+        MerkleTree current = currentTree();
+        int level = in.readUnsignedByte();
+        if (level > MerkleTree.DEPTH) {
+            throw new IOException("Nieprawidłowy poziom drzewa: " + level);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            out.writeLong(current.hash(level, readIndex(in, MerkleTree.nodesAt(level))));
+        }
+    }
+
+    private synchronized void writeLeafEntries(DataInputStream in, DataOutputStream out) throws IOException {
+        MerkleTree current = currentTree();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int leaf = readIndex(in, MerkleTree.LEAVES);
+            out.writeInt(current.leafEnd(leaf) - current.leafStart(leaf));
+            for (int slot = current.leafStart(leaf); slot < current.leafEnd(leaf); slot++) {
+                out.writeLong(current.keyHigh(slot));
+                out.writeLong(current.keyLow(slot));
+                out.writeLong(current.fingerprint(slot));
+            }
+        }
+    }
+
+    private void writeItems(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        long[] keys = new long[count * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = in.readLong();
+        }
+        try (Snapshot snapshot = library.snapshot()) {
+            snapshot.run(() -> {
+                for (int i = 0; i < count; i++) {
+                    Item item = library.findItem(new UUID(keys[2 * i], keys[2 * i + 1]).toString());
+                    out.writeBoolean(item != null);
+                    if (item != null) {
+                        ItemRecord.of(item).writeTo(out);
+                    }
+                }
+            });
+        }
+    }
+
+    private static int readIndex(DataInputStream in, int limit) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= limit) {
+            throw new IOException("Nieprawidłowy numer węzła: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Pobiera drzewo zgodne z ostatnią zmianą w dzienniku biblioteki. Numer zmiany i migawka
+     * są odczytywane w jednej transakcji, więc migawka zawiera dokładnie zmiany do tego numeru.
+     * Drzewo jest modyfikowane w miejscu; wywołujący musi trzymać blokadę serwera podczas odczytu.
+     */
+    private MerkleTree currentTree() {
+        ChangeLog log = library.getChangeLog();
+        if (tree != null && log.getLastSequence() == treeSequence) {
+            return tree;
+        }
+        long[] sequence = new long[1];
+        Snapshot pinned = Versions.commitAndGet(() -> {
+            sequence[0] = log.getLastSequence();
+            return library.snapshot();
+        });
+        try (Snapshot snapshot = pinned) {
+            snapshot.run(() -> {
+                if (tree == null || !applyChanges(log, sequence[0])) {
+                    tree = MerkleTree.build(library.getAllItems());
+                }
+            });
+        }
+        treeSequence = sequence[0];
+        return tree;
+    }
+
+    /**
+     * Nanosi na drzewo zmiany z dziennika od ostatniej aktualizacji do podanego numeru.
+     * @return false jeśli drzewo trzeba zbudować od nowa
+     */
+    private boolean applyChanges(ChangeLog log, long toSequence) {
+        long changeCount = toSequence - treeSequence;
+        if (log.getFirstRetainedSequence() > treeSequence + 1
+                || changeCount > Math.max(1, tree.size() / MAX_INCREMENTAL_FRACTION_INVERSE)) {
+            return false;
+        }
+        List<Item> added = new ArrayList<>();
+        Set<String> changed = new LinkedHashSet<>();
+        for (long next = treeSequence + 1; next <= toSequence; ) {
+            List<ChangeRecord> batch = log.read(next, (int) Math.min(CHANGE_BATCH, toSequence - next + 1));
+            if (batch.isEmpty() || batch.get(0).sequence() != next) {
+                return false;
+            }
+            for (ChangeRecord record : batch) {
+                ChangeEvent event = record.event();
+                if (event instanceof ChangeEvent.CatalogReloaded) {
+                    return false;
+                } else if (event instanceof ChangeEvent.ItemAdded itemAdded) {
+                    Item item = library.findItem(itemAdded.item().id());
+                    if (item != null) {
+                        added.add(item);
+                    }
+                } else if (event instanceof ChangeEvent.ItemBorrowed borrowed) {
+                    changed.add(borrowed.itemId());
+                } else if (event instanceof ChangeEvent.ItemReturned returned) {
+                    changed.add(returned.itemId());
+                } else if (event instanceof ChangeEvent.LoanExtended extended) {
+                    changed.add(extended.itemId());
+                }
+            }
+            next += batch.size();
+        }
+        tree.addAll(added);
+        for (String itemId : changed) {
+            Item item = library.findItem(itemId);
+            if (item != null && !tree.update(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package library.replication;
+
+import java.io.IOException;
+
+/**
+ * Kanał komunikacji między replikującymi się bibliotekami: przesyła zapytanie
+ * do biblioteki źródłowej i zwraca jej odpowiedź.
+ */
+@FunctionalInterface
+public interface ReplicationTransport {
+    /**
+     * Wysyła zapytanie i czeka na odpowiedź.
+     * @param request zakodowane zapytanie
+     * @return zakodowana odpowiedź
+     * @throws IOException błąd komunikacji lub odpowiedź z błędem
+     */
+    byte[] exchange(byte[] request) throws IOException;
+}
@@ -0,0 +1,31 @@
+package library.replication;
+
+import java.util.List;
+
+/**
+ * Podsumowanie synchronizacji katalogu.
+ * @param roundTrips liczba wymian zapytanie–odpowiedź
+ * @param bytesSent liczba bajtów wysłanych do biblioteki źródłowej
+ * @param bytesReceived liczba bajtów odebranych z biblioteki źródłowej
+ * @param differingLeaves liczba różniących się liści drzewa Merkle
+ * @param itemsFetched liczba pobranych przedmiotów
+ * @param itemsApplied liczba przedmiotów dodanych lub zmienionych lokalnie
+ * @param conflicts identyfikatory przedmiotów pominiętych, bo wypożyczył je lokalny czytelnik
+ * @param localOnlyItems liczba przedmiotów obecnych tylko w lokalnym katalogu
+ * @param elapsedNanos czas synchronizacji
+ */
+public record SyncReport(int roundTrips, long bytesSent, long bytesReceived, int differingLeaves,
+                         int itemsFetched, int itemsApplied, List<String> conflicts, int localOnlyItems,
+                         long elapsedNanos) {
+    public SyncReport {
+        conflicts = List.copyOf(conflicts);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Wymiany: %d, wysłano: %.1f KB, odebrano: %.1f KB, różne liście: %d, "
+                + "pobrane przedmioty: %d, zastosowane zmiany: %d, konflikty: %d, tylko lokalnie: %d (%.1f ms)",
+            roundTrips, bytesSent / 1024.0, bytesReceived / 1024.0, differingLeaves,
+            itemsFetched, itemsApplied, conflicts.size(), localOnlyItems, elapsedNanos / 1e6);
+    }
+}
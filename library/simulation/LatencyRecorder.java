@@ -0,0 +1,36 @@
+package library.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Zbiera czasy wykonania jednego rodzaju operacji i wyznacza ich percentyle.
+ */
+class LatencyRecorder {
+    private long[] samples = new long[1_024];
+    private int count;
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    int count() {
+        return count;
+    }
+
+    LatencySummary summarize() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new LatencySummary(count, percentile(sorted, 0.50), percentile(sorted, 0.99),
+            count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,11 @@
+package library.simulation;
+
+/**
+ * Czasy wykonania jednego rodzaju operacji w nanosekundach.
+ * @param count liczba operacji
+ * @param p50 mediana
+ * @param p99 99. percentyl
+ * @param max najdłuższy czas
+ */
+public record LatencySummary(int count, long p50, long p99, long max) {
+}
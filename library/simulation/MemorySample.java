@@ -0,0 +1,14 @@
+package library.simulation;
+
+import java.time.LocalDate;
+
+/**
+ * Stan biblioteki i zajętość sterty w danym dniu symulacji.
+ * @param date symulowana data
+ * @param usedHeapBytes zajęta pamięć sterty po odśmiecaniu
+ * @param users liczba czytelników
+ * @param items liczba pozycji w katalogu
+ * @param activeLoans liczba aktywnych wypożyczeń
+ */
+public record MemorySample(LocalDate date, long usedHeapBytes, int users, int items, int activeLoans) {
+}
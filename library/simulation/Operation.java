@@ -0,0 +1,23 @@
+package library.simulation;
+
+/**
+ * Rodzaje operacji wykonywanych przez symulator.
+ */
+public enum Operation {
+    SEARCH("Wyszukiwanie"),
+    BORROW("Wypożyczenie"),
+    EXTEND("Przedłużenie"),
+    RETURN("Zwrot"),
+    REGISTER("Rejestracja"),
+    FINE_ACCRUAL("Naliczanie kar");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
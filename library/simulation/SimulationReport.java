@@ -0,0 +1,41 @@
+package library.simulation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wynik symulacji: przepustowość, czasy operacji i przyrost pamięci w symulowanym czasie.
+ * @param profile profil ruchu
+ * @param elapsedNanos rzeczywisty czas trwania symulacji
+ * @param latencies czasy wykonania według rodzaju operacji
+ * @param failedBorrows wizyty zakończone bez wypożyczenia (brak wyników lub pozycja niedostępna)
+ * @param memory próbki pamięci, pierwsza z początku, kolejne co {@value WorkloadSimulator#MEMORY_SAMPLE_DAYS} dni
+ */
+public record SimulationReport(WorkloadProfile profile, long elapsedNanos, Map<Operation, LatencySummary> latencies,
+                               long failedBorrows, List<MemorySample> memory) {
+
+    public long totalOperations() {
+        return latencies.values().stream().mapToLong(LatencySummary::count).sum();
+    }
+
+    public double operationsPerSecond() {
+        return totalOperations() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("=== Raport Symulacji ===\n");
+        report.append(String.format("Symulowane dni: %d, czas rzeczywisty: %.2f s, operacje: %d (%.0f op/s)%n",
+            profile.days(), elapsedNanos / 1e9, totalOperations(), operationsPerSecond()));
+        report.append(String.format("Wizyty bez wypożyczenia: %d%n%n", failedBorrows));
+        report.append(String.format("%-16s %10s %12s %12s %12s%n", "Operacja", "Liczba", "p50 [µs]", "p99 [µs]", "max [µs]"));
+        latencies.forEach((operation, latency) -> report.append(String.format("%-16s %10d %12.1f %12.1f %12.1f%n",
+            operation.getLabel(), latency.count(), latency.p50() / 1e3, latency.p99() / 1e3, latency.max() / 1e3)));
+        report.append(String.format("%n%-12s %12s %10s %10s %12s%n", "Data", "Sterta [MB]", "Czytelnicy", "Pozycje", "Wypożyczenia"));
+        for (MemorySample sample : memory) {
+            report.append(String.format("%-12s %12.1f %10d %10d %12d%n", sample.date(),
+                sample.usedHeapBytes() / (1024.0 * 1024.0), sample.users(), sample.items(), sample.activeLoans()));
+        }
+        return report.toString();
+    }
+}
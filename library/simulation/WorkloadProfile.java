@@ -0,0 +1,37 @@
+package library.simulation;
+
+/**
+ * Parametry generowanego ruchu czytelników.
+ * @param days liczba symulowanych dni
+ * @param initialItems liczba pozycji w katalogu na początku symulacji
+ * @param initialUsers liczba czytelników na początku symulacji
+ * @param visitsPerDay średnia liczba wizyt czytelników dziennie (każda wizyta to wyszukiwanie i próba wypożyczenia)
+ * @param registrationsPerDay średnia liczba nowych czytelników dziennie
+ * @param extendProbability prawdopodobieństwo przedłużenia wypożyczenia
+ * @param lateReturnProbability prawdopodobieństwo zwrotu po terminie
+ * @param seed ziarno generatora; ten sam profil daje ten sam przebieg
+ */
+public record WorkloadProfile(int days, int initialItems, int initialUsers, double visitsPerDay,
+                              double registrationsPerDay, double extendProbability,
+                              double lateReturnProbability, long seed) {
+    public static final WorkloadProfile ONE_YEAR = new WorkloadProfile(365, 2_000, 500, 200, 2, 0.2, 0.15, 42);
+
+    public WorkloadProfile {
+        if (days <= 0 || initialItems <= 0 || initialUsers <= 0 || visitsPerDay <= 0 || registrationsPerDay < 0) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry symulacji");
+        }
+        if (extendProbability < 0 || extendProbability > 1 || lateReturnProbability < 0 || lateReturnProbability > 1) {
+            throw new IllegalArgumentException("Prawdopodobieństwo musi należeć do przedziału [0, 1]");
+        }
+    }
+
+    /**
+     * Tworzy kopię profilu z inną liczbą dni.
+     * @param newDays liczba symulowanych dni
+     * @return nowy profil
+     */
+    public WorkloadProfile withDays(int newDays) {
+        return new WorkloadProfile(newDays, initialItems, initialUsers, visitsPerDay, registrationsPerDay,
+            extendProbability, lateReturnProbability, seed);
+    }
+}
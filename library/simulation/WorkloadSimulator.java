@@ -0,0 +1,251 @@
+package library.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Supplier;
+import library.Library;
+import library.interfaces.Loanable;
+import library.models.Book;
+import library.models.Item;
+import library.models.Magazine;
+import library.models.User;
+import library.time.LibraryClock;
+import library.time.SimulatedClock;
+
+/**
+ * Deterministyczny symulator ruchu czytelników oparty na zdarzeniach dyskretnych.
+ * <p>
+ * Zdarzenia (wizyty, rejestracje, przedłużenia, zwroty i nocne naliczanie kar) trafiają do kolejki
+ * uporządkowanej według symulowanego czasu. Przed obsłużeniem zdarzenia {@link SimulatedClock}
+ * jest przesuwany do jego chwili i ustawiany jako {@link LibraryClock}, więc daty wypożyczeń,
+ * terminy i kary wynikają z czasu symulacji, a rok ruchu domyślnego profilu wykonuje się w około
+ * 10 sekund (większość czasu zajmują wyszukiwania w katalogu).
+ * Ten sam {@link WorkloadProfile} daje zawsze ten sam ciąg operacji.
+ * <p>
+ * Uruchomienie: {@code java library.simulation.WorkloadSimulator [liczbaDni]}
+ */
+public class WorkloadSimulator {
+    public static final int MEMORY_SAMPLE_DAYS = 30;
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final long ACCRUAL_OFFSET_MILLIS = Duration.ofHours(2).toMillis();
+    private static final int EXTENSION_DAYS = 14;
+    private static final String[] WORDS = {
+        "wiatr", "morze", "las", "miasto", "noc", "droga", "dom", "ogień", "zima", "rzeka",
+        "góry", "cień", "światło", "czas", "pamięć", "sen", "gwiazda", "ziemia", "wojna", "pokój",
+        "historia", "ogród", "most", "okno", "list", "klucz", "wyspa", "burza", "kamień", "zamek"
+    };
+    private static final String[] GENRES = {"Powieść", "Kryminał", "Fantastyka", "Reportaż", "Poezja", "Historia"};
+
+    private final Library library;
+    private final WorkloadProfile profile;
+    private final Random random;
+    private final SimulatedClock clock = new SimulatedClock(START, ZoneOffset.UTC);
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+    private final List<User> users = new ArrayList<>();
+    private final List<MemorySample> memory = new ArrayList<>();
+    private long sequence;
+    private long failedBorrows;
+    private int activeLoans;
+    private int itemCount;
+
+    /**
+     * Tworzy symulator działający na podanej bibliotece.
+     * @param library biblioteka, na której wykonywane są operacje (zwykle nowa, pusta)
+     * @param profile parametry ruchu
+     */
+    public WorkloadSimulator(Library library, WorkloadProfile profile) {
+        this.library = library;
+        this.profile = profile;
+        this.random = new Random(profile.seed());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Wykonuje symulację. Na czas jej trwania zegar biblioteki jest zastępowany zegarem symulacji.
+     * @return raport z przebiegu
+     */
+    public SimulationReport run() {
+        Clock previousClock = LibraryClock.set(clock);
+        try {
+            populate();
+            schedule(0, EventType.VISIT, null, null);
+            schedule(0, EventType.REGISTRATION, null, null);
+            for (int day = 0; day < profile.days(); day++) {
+                long dayStart = day * DAY_MILLIS;
+                schedule(dayStart + ACCRUAL_OFFSET_MILLIS, EventType.FINE_ACCRUAL, null, null);
+                if (day % MEMORY_SAMPLE_DAYS == 0) {
+                    schedule(dayStart, EventType.MEMORY_SAMPLE, null, null);
+                }
+            }
+            long end = profile.days() * DAY_MILLIS;
+            schedule(end, EventType.MEMORY_SAMPLE, null, null);
+
+            long start = System.nanoTime();
+            while (!events.isEmpty() && events.peek().time() <= end) {
+                Event event = events.poll();
+                clock.advanceTo(START.plusMillis(event.time()));
+                handle(event);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Map<Operation, LatencySummary> summaries = new EnumMap<>(Operation.class);
+            latencies.forEach((operation, recorder) -> summaries.put(operation, recorder.summarize()));
+            return new SimulationReport(profile, elapsed, summaries, failedBorrows, List.copyOf(memory));
+        } finally {
+            LibraryClock.set(previousClock);
+        }
+    }
+
+    private void populate() {
+        List<Item> items = new ArrayList<>(profile.initialItems());
+        for (int i = 0; i < profile.initialItems(); i++) {
+            items.add(newItem(i));
+        }
+        library.addItems(items);
+        itemCount = items.size();
+        for (int i = 0; i < profile.initialUsers(); i++) {
+            User user = new User("Imię" + i, "Nazwisko" + i);
+            library.registerUser(user);
+            users.add(user);
+        }
+    }
+
+    private Item newItem(int index) {
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + index;
+        if (random.nextInt(4) == 0) {
+            return new Magazine(title, 2000 + random.nextInt(26), 1 + random.nextInt(12), "Wydawca " + random.nextInt(20));
+        }
+        return new Book(title, "Autor " + random.nextInt(300), GENRES[random.nextInt(GENRES.length)], 1950 + random.nextInt(76));
+    }
+
+    private void handle(Event event) {
+        switch (event.type()) {
+            case VISIT -> {
+                visit(event.time());
+                schedule(event.time() + nextArrival(profile.visitsPerDay()), EventType.VISIT, null, null);
+            }
+            case REGISTRATION -> {
+                if (profile.registrationsPerDay() > 0) {
+                    if (event.time() > 0) {
+                        User user = new User("Imię" + users.size(), "Nazwisko" + users.size());
+                        timedRun(Operation.REGISTER, () -> library.registerUser(user));
+                        users.add(user);
+                    }
+                    schedule(event.time() + nextArrival(profile.registrationsPerDay()), EventType.REGISTRATION, null, null);
+                }
+            }
+            case EXTEND -> timedRun(Operation.EXTEND, () -> event.user().extendItem(event.item(), EXTENSION_DAYS));
+            case RETURN -> {
+                timed(Operation.RETURN, () -> event.user().returnItem(event.item()));
+                activeLoans--;
+            }
+            case FINE_ACCRUAL -> timed(Operation.FINE_ACCRUAL, library::runFineAccrual);
+            case MEMORY_SAMPLE -> sampleMemory();
+        }
+    }
+
+    /**
+     * Wizyta czytelnika: wyszukanie słowa z tytułów i próba wypożyczenia jednej ze znalezionych pozycji.
+     * Czas zwrotu jest losowany względem terminu, część wypożyczeń jest przedłużana lub oddawana po terminie.
+     */
+    private void visit(long now) {
+        User user = users.get(random.nextInt(users.size()));
+        String query = WORDS[random.nextInt(WORDS.length)];
+        List<Item> found = timed(Operation.SEARCH, () -> library.searchItems(query));
+        Item item = found.isEmpty() ? null : found.get(random.nextInt(found.size()));
+        if (!(item instanceof Loanable loanable) || !loanable.isAvailable()) {
+            failedBorrows++;
+            return;
+        }
+        timedRun(Operation.BORROW, () -> user.borrowItem(item));
+        activeLoans++;
+
+        long loanDays = loanable.getDueDate().toEpochDay() - loanable.getBorrowDate().toEpochDay();
+        boolean extended = random.nextDouble() < profile.extendProbability();
+        if (extended) {
+            // Przedłużenie dzień przed terminem; zwrot nie może go wyprzedzić.
+            schedule(now + (loanDays - 1) * DAY_MILLIS, EventType.EXTEND, user, item);
+        }
+        long dueDays = extended ? loanDays + EXTENSION_DAYS : loanDays;
+        long keptDays;
+        if (random.nextDouble() < profile.lateReturnProbability()) {
+            keptDays = dueDays + 1 + random.nextInt(45);
+        } else if (extended) {
+            keptDays = loanDays + random.nextInt(EXTENSION_DAYS + 1);
+        } else {
+            keptDays = 1 + random.nextInt((int) loanDays);
+        }
+        schedule(now + keptDays * DAY_MILLIS + random.nextInt((int) DAY_MILLIS / 2), EventType.RETURN, user, item);
+    }
+
+    private void sampleMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        memory.add(new MemorySample(LibraryClock.today(), runtime.totalMemory() - runtime.freeMemory(),
+            users.size(), itemCount, activeLoans));
+    }
+
+    /**
+     * Losuje odstęp do następnego zdarzenia procesu Poissona o podanej intensywności.
+     * @param perDay średnia liczba zdarzeń na dobę
+     * @return odstęp w milisekundach (co najmniej 1)
+     */
+    private long nextArrival(double perDay) {
+        return Math.max(1, (long) (-Math.log(1 - random.nextDouble()) / perDay * DAY_MILLIS));
+    }
+
+    private void schedule(long time, EventType type, User user, Item item) {
+        events.add(new Event(time, sequence++, type, user, item));
+    }
+
+    private void timedRun(Operation operation, Runnable action) {
+        timed(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T timed(Operation operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        T result = action.get();
+        latencies.get(operation).record(System.nanoTime() - start);
+        return result;
+    }
+
+    private enum EventType {
+        VISIT, REGISTRATION, EXTEND, RETURN, FINE_ACCRUAL, MEMORY_SAMPLE
+    }
+
+    /**
+     * Zdarzenie w kolejce; przy równym czasie decyduje kolejność dodania, co zapewnia powtarzalność.
+     */
+    private record Event(long time, long sequence, EventType type, User user, Item item) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public static void main(String[] args) {
+        WorkloadProfile profile = WorkloadProfile.ONE_YEAR;
+        if (args.length > 0) {
+            profile = profile.withDays(Integer.parseInt(args[0]));
+        }
+        System.out.println(new WorkloadSimulator(new Library(), profile).run());
+    }
+}
@@ -0,0 +1,90 @@
+package library.time;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Zegar całej biblioteki: daty wypożyczeń i zwrotów, naliczanie kar, analiza popytu
+ * i generowanie identyfikatorów korzystają z niego zamiast bezpośrednio z czasu systemowego.
+ * <p>
+ * Domyślnie jest to zegar systemowy. Podmiana przez {@link #set(Clock)} pozwala odtwarzać
+ * i przyspieszać ruch (zob. {@link SimulatedClock}); obiekty, które zapamiętały
+ * {@link #get()}, od razu widzą nowy zegar.
+ */
+public final class LibraryClock {
+    private static final Clock SYSTEM = Clock.systemDefaultZone();
+    private static final Clock CURRENT = new Delegate();
+    private static volatile Clock clock = SYSTEM;
+
+    private LibraryClock() {
+    }
+
+    /**
+     * Pobiera zegar, który zawsze wskazuje aktualnie ustawiony zegar biblioteki.
+     * @return zegar biblioteki
+     */
+    public static Clock get() {
+        return CURRENT;
+    }
+
+    /**
+     * Ustawia zegar biblioteki.
+     * @param newClock nowy zegar
+     * @return poprzednio ustawiony zegar
+     */
+    public static Clock set(Clock newClock) {
+        if (newClock == null || newClock == CURRENT) {
+            throw new IllegalArgumentException("Nieprawidłowy zegar");
+        }
+        Clock previous = clock;
+        clock = newClock;
+        return previous;
+    }
+
+    /**
+     * Przywraca zegar systemowy.
+     */
+    public static void reset() {
+        clock = SYSTEM;
+    }
+
+    /**
+     * Pobiera bieżącą datę według zegara biblioteki.
+     * @return dzisiejsza data
+     */
+    public static LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Pobiera bieżący czas w milisekundach według zegara biblioteki.
+     * @return milisekundy od początku epoki
+     */
+    public static long millis() {
+        return clock.millis();
+    }
+
+    private static final class Delegate extends Clock {
+        @Override
+        public ZoneId getZone() {
+            return clock.getZone();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return clock.withZone(zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return clock.instant();
+        }
+
+        @Override
+        public long millis() {
+            return clock.millis();
+        }
+    }
+}
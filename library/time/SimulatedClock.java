@@ -0,0 +1,74 @@
+package library.time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Zegar sterowany ręcznie, używany do odtwarzania ruchu w przyspieszonym czasie.
+ * Czas nie może się cofać.
+ */
+public class SimulatedClock extends Clock {
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    public SimulatedClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    /**
+     * Przesuwa zegar do podanej chwili.
+     * @param instant nowa chwila
+     * @throws IllegalArgumentException gdy chwila jest wcześniejsza niż bieżąca
+     */
+    public synchronized void advanceTo(Instant instant) {
+        if (instant.isBefore(now)) {
+            throw new IllegalArgumentException("Czas symulacji nie może się cofać");
+        }
+        now = instant;
+    }
+
+    /**
+     * Przesuwa zegar o podany czas.
+     * @param duration nieujemny odstęp czasu
+     */
+    public void advance(Duration duration) {
+        advanceTo(now.plus(duration));
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId newZone) {
+        if (newZone.equals(zone)) {
+            return this;
+        }
+        SimulatedClock source = this;
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return newZone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return source.withZone(zone);
+            }
+
+            @Override
+            public Instant instant() {
+                return source.instant();
+            }
+        };
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}